@@ -2,6 +2,7 @@ plugins {
   java
   id("org.springframework.boot") version "3.3.4"
   id("io.spring.dependency-management") version "1.1.6"
+  id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.neitex"
@@ -34,7 +35,10 @@ dependencies {
   implementation("org.springframework.cloud:spring-cloud-starter-netflix-eureka-client")
   implementation("org.springframework.cloud:spring-cloud-starter-openfeign")
   implementation("com.auth0:java-jwt:4.4.0")
-  implementation("org.modelmapper:modelmapper:3.0.0")
+  implementation("com.github.ben-manes.caffeine:caffeine")
+  implementation("com.github.ben-manes.caffeine:jcache")
+  implementation("org.hibernate.orm:hibernate-jcache")
+  implementation("org.hibernate.orm:hibernate-micrometer")
   compileOnly("org.projectlombok:lombok")
   runtimeOnly("org.postgresql:postgresql")
   annotationProcessor("org.projectlombok:lombok")
@@ -42,6 +46,7 @@ dependencies {
   testImplementation("org.springframework.security:spring-security-test")
   testImplementation("com.h2database:h2")
   testImplementation("org.wiremock:wiremock-standalone")
+  jmh("org.modelmapper:modelmapper:3.0.0")
   testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
@@ -51,6 +56,12 @@ dependencyManagement {
   }
 }
 
+jmh {
+  fork = 1
+  warmupIterations = 3
+  iterations = 5
+}
+
 tasks.withType<Test> {
   useJUnitPlatform()
 }
@@ -0,0 +1,50 @@
+package com.neitex.bookstoreservice.benchmark;
+
+import com.neitex.bookstoreservice.dto.SuggestionDTO;
+import com.neitex.bookstoreservice.dto.SuggestionDTO.SuggestionType;
+import com.neitex.bookstoreservice.service.AutocompleteIndex;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Latency of a typeahead query against an index of 100k titles and 10k author names. Run with
+ * {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AutocompleteBenchmark {
+
+  private static final int BOOKS = 100_000;
+  private static final int AUTHORS = 10_000;
+
+  @Param({"t", "title 4", "author 99"})
+  private String prefix;
+
+  private AutocompleteIndex autocompleteIndex;
+
+  @Setup
+  public void setUp() {
+    // filled directly, so the startup loader's dependencies are not needed
+    autocompleteIndex = new AutocompleteIndex(null, null, null);
+    for (int i = 0; i < BOOKS; i++) {
+      autocompleteIndex.put(SuggestionType.BOOK, (long) i, "Title " + i + " of the series");
+    }
+    for (int i = 0; i < AUTHORS; i++) {
+      autocompleteIndex.put(SuggestionType.AUTHOR, (long) i, "Author " + i);
+    }
+  }
+
+  @Benchmark
+  public List<SuggestionDTO> suggest() {
+    return autocompleteIndex.suggest(prefix, 10);
+  }
+}
@@ -3,11 +3,13 @@ package com.neitex.bookstoreservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @SpringBootApplication
 @EnableFeignClients
 @EnableTransactionManagement
+@EnableScheduling
 public class BookStoreServiceApplication {
 
   public static void main(String[] args) {
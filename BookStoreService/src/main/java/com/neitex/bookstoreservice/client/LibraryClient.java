@@ -1,13 +1,23 @@
 package com.neitex.bookstoreservice.client;
 
 import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO;
+import com.neitex.bookstoreservice.dto.IdRangeDigestDTO;
+import java.util.List;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @FeignClient("library")
 public interface LibraryClient {
 
-  @RequestMapping(value = "/internal-books-lease/updates", method = RequestMethod.POST, consumes = "application/json", produces = "application/json")
-  void updateBook(BookUpdateRequestDTO bookUpdateRequestDTO);
+  @RequestMapping(value = "/internal-books-lease/updates/batch", method = RequestMethod.POST, consumes = "application/json", produces = "application/json")
+  void updateBooks(List<BookUpdateRequestDTO> bookUpdateRequestDTOs);
+
+  @RequestMapping(value = "/internal-books-lease/digest", method = RequestMethod.GET, produces = "application/json")
+  List<IdRangeDigestDTO> digestBookIds(@RequestParam("bounds") List<Long> bounds);
+
+  @RequestMapping(value = "/internal-books-lease/ids", method = RequestMethod.GET, produces = "application/json")
+  List<Long> getBookIds(@RequestParam("from") Long from, @RequestParam("to") Long to,
+      @RequestParam("limit") Integer limit);
 }
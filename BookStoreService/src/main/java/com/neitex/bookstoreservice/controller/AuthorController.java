@@ -3,6 +3,7 @@ package com.neitex.bookstoreservice.controller;
 import com.neitex.bookstoreservice.dto.AuthorRequestDTO;
 import com.neitex.bookstoreservice.dto.AuthorResponseDTO;
 import com.neitex.bookstoreservice.service.AuthorService;
+import com.neitex.bookstoreservice.util.Pagination;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -24,8 +26,10 @@ public class AuthorController {
 
   @GetMapping("/authors")
   @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
-  public List<AuthorResponseDTO> getAuthors() {
-    return authorService.getAuthors();
+  public ResponseEntity<List<AuthorResponseDTO>> getAuthors(
+      @RequestParam(name = "after", defaultValue = "0") Long after,
+      @RequestParam(name = "size", required = false) Integer size) {
+    return Pagination.toResponse(authorService.getAuthors(after, size), AuthorResponseDTO::getId);
   }
 
   @GetMapping("/authors/{id}")
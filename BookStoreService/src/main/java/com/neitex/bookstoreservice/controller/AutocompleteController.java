@@ -0,0 +1,24 @@
+package com.neitex.bookstoreservice.controller;
+
+import com.neitex.bookstoreservice.dto.SuggestionDTO;
+import com.neitex.bookstoreservice.service.AutocompleteIndex;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+public class AutocompleteController {
+
+  private final AutocompleteIndex autocompleteIndex;
+
+  @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
+  @GetMapping("/autocomplete")
+  public List<SuggestionDTO> autocomplete(@RequestParam(name = "q") String prefix,
+      @RequestParam(name = "limit", defaultValue = "10") Integer limit) {
+    return autocompleteIndex.suggest(prefix, limit);
+  }
+}
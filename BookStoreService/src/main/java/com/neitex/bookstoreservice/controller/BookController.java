@@ -1,11 +1,27 @@
 package com.neitex.bookstoreservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.neitex.bookstoreservice.dto.BookFilterResponseDTO;
+import com.neitex.bookstoreservice.dto.BookImportDTO;
+import com.neitex.bookstoreservice.dto.BookImportResponseDTO;
 import com.neitex.bookstoreservice.dto.BookRequestDTO;
 import com.neitex.bookstoreservice.dto.BookResponseDTO;
+import com.neitex.bookstoreservice.service.BookImportService;
+import com.neitex.bookstoreservice.service.BookSearchService;
 import com.neitex.bookstoreservice.service.BookService;
+import com.neitex.bookstoreservice.util.Pagination;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,18 +29,72 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @AllArgsConstructor
 public class BookController {
 
   private final BookService bookService;
+  private final BookSearchService bookSearchService;
+  private final BookImportService bookImportService;
+  private final ObjectMapper objectMapper;
 
   @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
   @GetMapping("/books")
-  public List<BookResponseDTO> getBooks() {
-    return bookService.getBooks();
+  public ResponseEntity<List<BookResponseDTO>> getBooks(
+      @RequestParam(name = "after", defaultValue = "0") Long after,
+      @RequestParam(name = "size", required = false) Integer size) {
+    return Pagination.toResponse(bookService.getBooks(after, size), BookResponseDTO::getId);
+  }
+
+  /**
+   * Whole catalogue as newline-delimited JSON, written while it is read from the database.
+   */
+  @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
+  @GetMapping(value = "/books/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportBooks() {
+    // the response buffer is flushed as it fills up, not after every book
+    ObjectWriter writer = objectMapper.writerFor(BookResponseDTO.class)
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    StreamingResponseBody body = outputStream -> bookService.forEachBook(book -> {
+      try {
+        writer.writeValue(outputStream, book);
+        outputStream.write('\n');
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
+  @GetMapping("/books/search")
+  public ResponseEntity<List<BookResponseDTO>> searchBooks(@RequestParam(name = "q") String query,
+      @RequestParam(name = "page", defaultValue = "0") Integer page,
+      @RequestParam(name = "size", required = false) Integer size) {
+    return Pagination.toPageResponse(bookSearchService.search(query, page, size));
+  }
+
+  /**
+   * Books filtered by any combination of genre, author and title keyword, with counts per genre
+   * and author for the same filter.
+   */
+  @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
+  @GetMapping("/books/filter")
+  public ResponseEntity<BookFilterResponseDTO> filterBooks(
+      @RequestParam(name = "genre", required = false) String genre,
+      @RequestParam(name = "authorId", required = false) Long authorId,
+      @RequestParam(name = "q", required = false) String keyword,
+      @RequestParam(name = "after", defaultValue = "0") Long after,
+      @RequestParam(name = "size", required = false) Integer size) {
+    Slice<BookResponseDTO> books = bookService.filterBooks(genre, authorId, keyword, after, size);
+    return Pagination.withCursor(books, BookResponseDTO::getId)
+        .body(bookService.withFacets(books.getContent(), genre, authorId, keyword));
   }
 
   @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
@@ -41,8 +111,12 @@ public class BookController {
 
   @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
   @GetMapping("/books/by-author/{authorId}")
-  public List<BookResponseDTO> getBooksByAuthor(@PathVariable("authorId") Long authorId) {
-    return bookService.findBooksByAuthor(authorId);
+  public ResponseEntity<List<BookResponseDTO>> getBooksByAuthor(
+      @PathVariable("authorId") Long authorId,
+      @RequestParam(name = "after", defaultValue = "0") Long after,
+      @RequestParam(name = "size", required = false) Integer size) {
+    return Pagination.toResponse(bookService.findBooksByAuthor(authorId, after, size),
+        BookResponseDTO::getId);
   }
 
   @PreAuthorize("hasRole('EDITOR')")
@@ -51,6 +125,19 @@ public class BookController {
     return ResponseEntity.status(HttpStatus.CREATED).body(bookService.createBook(book));
   }
 
+  /**
+   * Creates books from a JSON array or newline-delimited JSON, read as a stream.
+   */
+  @PreAuthorize("hasRole('EDITOR')")
+  @PostMapping(value = "/books/bulk",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+  public BookImportResponseDTO importBooks(InputStream body) throws IOException {
+    try (MappingIterator<BookImportDTO> rows = objectMapper.readerFor(BookImportDTO.class)
+        .readValues(body)) {
+      return bookImportService.importBooks(rows);
+    }
+  }
+
   @PreAuthorize("hasRole('EDITOR')")
   @PostMapping("/books/{id}")
   public BookResponseDTO updateBook(@PathVariable("id") Long id, @RequestBody BookRequestDTO book) {
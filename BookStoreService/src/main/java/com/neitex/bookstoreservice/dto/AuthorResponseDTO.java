@@ -1,5 +1,6 @@
 package com.neitex.bookstoreservice.dto;
 
+import com.neitex.bookstoreservice.entity.Author;
 import lombok.Data;
 
 @Data
@@ -7,4 +8,11 @@ public class AuthorResponseDTO {
 
   private Long id;
   private String name;
+
+  public static AuthorResponseDTO from(Author author) {
+    AuthorResponseDTO dto = new AuthorResponseDTO();
+    dto.id = author.getId();
+    dto.name = author.getName();
+    return dto;
+  }
 }
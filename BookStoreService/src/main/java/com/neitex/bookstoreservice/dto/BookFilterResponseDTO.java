@@ -0,0 +1,35 @@
+package com.neitex.bookstoreservice.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A page of filtered books with facet counts. Each facet counts the books matching every
+ * criterion except its own, so the counts show what selecting another value would return.
+ */
+@Data
+@AllArgsConstructor
+public class BookFilterResponseDTO {
+
+  private List<BookResponseDTO> books;
+  private List<GenreCount> genres;
+  private List<AuthorCount> authors;
+
+  @Data
+  @AllArgsConstructor
+  public static class GenreCount {
+
+    private String genre;
+    private Long count;
+  }
+
+  @Data
+  @AllArgsConstructor
+  public static class AuthorCount {
+
+    private Long id;
+    private String name;
+    private Long count;
+  }
+}
@@ -0,0 +1,20 @@
+package com.neitex.bookstoreservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row of a bulk import. The author is given either by {@code authorId} or by
+ * {@code authorName}; an author named for the first time is created.
+ */
+@Data
+@NoArgsConstructor
+public class BookImportDTO {
+
+  private String title;
+  private String isbn;
+  private String description;
+  private Long authorId;
+  private String authorName;
+  private String genre;
+}
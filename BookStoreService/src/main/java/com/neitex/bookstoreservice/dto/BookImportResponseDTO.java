@@ -0,0 +1,35 @@
+package com.neitex.bookstoreservice.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookImportResponseDTO {
+
+  private int created;
+  private int failed;
+  /**
+   * One result per row, in request order.
+   */
+  private List<RowResult> rows;
+
+  @Data
+  @AllArgsConstructor
+  public static class RowResult {
+
+    /**
+     * Zero-based position of the row in the request.
+     */
+    private int row;
+    /**
+     * ID of the created book, {@code null} if the row failed.
+     */
+    private Long id;
+    /**
+     * Why the row was rejected, {@code null} if the book was created.
+     */
+    private String error;
+  }
+}
@@ -1,6 +1,6 @@
 package com.neitex.bookstoreservice.dto;
 
-import com.neitex.bookstoreservice.entity.Author;
+import com.neitex.bookstoreservice.entity.Book;
 import lombok.Data;
 
 @Data
@@ -10,6 +10,17 @@ public class BookResponseDTO {
   private String title;
   private String isbn;
   private String description;
-  private Author author;
+  private AuthorResponseDTO author;
   private String genre;
+
+  public static BookResponseDTO from(Book book) {
+    BookResponseDTO dto = new BookResponseDTO();
+    dto.id = book.getId();
+    dto.title = book.getTitle();
+    dto.isbn = book.getIsbn();
+    dto.description = book.getDescription();
+    dto.author = book.getAuthor() == null ? null : AuthorResponseDTO.from(book.getAuthor());
+    dto.genre = book.getGenre();
+    return dto;
+  }
 }
@@ -0,0 +1,39 @@
+package com.neitex.bookstoreservice.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Order-independent summary of the book IDs in a range. Two ranges with equal digests hold the
+ * same IDs; LibraryService computes the same digest of its leases, so that ranges where the
+ * services disagree can be found without transferring the IDs.
+ */
+@Data
+@NoArgsConstructor
+public class IdRangeDigestDTO {
+
+  private long count;
+  /**
+   * Sum of the mixed IDs, so that it doesn't depend on the order in which IDs are added.
+   */
+  private long hash;
+  private Long minId;
+  private Long maxId;
+
+  public void add(long id) {
+    count++;
+    hash += mix(id);
+    minId = minId == null ? id : Math.min(minId, id);
+    maxId = maxId == null ? id : Math.max(maxId, id);
+  }
+
+  /**
+   * SplitMix64 finalizer: spreads consecutive IDs over the whole {@code long} range.
+   */
+  private static long mix(long id) {
+    long z = id + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
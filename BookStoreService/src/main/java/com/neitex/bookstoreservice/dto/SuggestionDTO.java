@@ -0,0 +1,17 @@
+package com.neitex.bookstoreservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SuggestionDTO {
+
+  private SuggestionType type;
+  private Long id;
+  private String text;
+
+  public enum SuggestionType {
+    BOOK, AUTHOR,
+  }
+}
@@ -1,29 +1,48 @@
 package com.neitex.bookstoreservice.entity;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {@Index(columnList = "genre"),
+    @Index(columnList = "author_id")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class Book {
 
+  /**
+   * Taken from a sequence 50 values at a time, so batched inserts don't wait for generated keys.
+   * The sequence is the one Hibernate created for the previous default generator.
+   */
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+  @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
   private Long id;
   private String title;
+  @NaturalId(mutable = true)
   @Column(unique = true)
   private String isbn;
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @OnDelete(action = OnDeleteAction.CASCADE)
   private Author author;
   @Column(columnDefinition = "TEXT")
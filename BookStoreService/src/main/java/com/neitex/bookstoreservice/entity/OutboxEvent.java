@@ -0,0 +1,44 @@
+package com.neitex.bookstoreservice.entity;
+
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A book update for LibraryService, written in the same transaction as the change to the book
+ * and delivered afterwards by {@link com.neitex.bookstoreservice.service.OutboxRelay}. The relay
+ * sends the state of the book at delivery time, so the update type only records what changed.
+ */
+@Entity
+@Table(name = "library_outbox")
+@NoArgsConstructor
+@Getter
+@Setter
+public class OutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "library_outbox_seq")
+  @SequenceGenerator(name = "library_outbox_seq", sequenceName = "library_outbox_seq",
+      allocationSize = 50)
+  private Long id;
+  private Long bookId;
+  @Enumerated(EnumType.STRING)
+  private BookUpdateType updateType;
+  private Instant createdAt;
+
+  public OutboxEvent(Long bookId, BookUpdateType updateType) {
+    this.bookId = bookId;
+    this.updateType = updateType;
+    this.createdAt = Instant.now();
+  }
+}
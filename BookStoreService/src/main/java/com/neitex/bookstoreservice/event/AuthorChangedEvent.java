@@ -0,0 +1,11 @@
+package com.neitex.bookstoreservice.event;
+
+/**
+ * Published by {@link com.neitex.bookstoreservice.service.AuthorService} when an author is
+ * created, renamed or deleted; in-memory indexes listen to it after the transaction commits.
+ *
+ * @param name name after the change, {@code null} for a deleted author
+ */
+public record AuthorChangedEvent(Long id, String name) {
+
+}
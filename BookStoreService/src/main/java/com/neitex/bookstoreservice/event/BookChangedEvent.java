@@ -0,0 +1,12 @@
+package com.neitex.bookstoreservice.event;
+
+/**
+ * Published by {@link com.neitex.bookstoreservice.service.BookService} when a book is created,
+ * updated or deleted; in-memory indexes listen to it after the transaction commits.
+ *
+ * @param previousIsbn ISBN before the change, {@code null} for a created book
+ * @param isbn         ISBN after the change, {@code null} for a deleted book
+ */
+public record BookChangedEvent(Long id, String previousIsbn, String isbn) {
+
+}
@@ -1,8 +1,11 @@
 package com.neitex.bookstoreservice.repository;
 
 import com.neitex.bookstoreservice.entity.Author;
+import java.util.Collection;
 import java.util.List;
 import lombok.NonNull;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
@@ -14,4 +17,8 @@ public interface AuthorRepository extends CrudRepository<Author, Long> {
 
   boolean existsByName(String name);
 
+  List<Author> findByNameIn(Collection<String> names);
+
+  Slice<Author> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
 }
@@ -0,0 +1,13 @@
+package com.neitex.bookstoreservice.repository;
+
+import com.neitex.bookstoreservice.entity.Book;
+import java.util.Optional;
+
+/**
+ * Lookups by {@link Book#getIsbn()} that go through Hibernate's natural-id cache, which derived and
+ * JPQL queries bypass.
+ */
+public interface BookNaturalIdRepository {
+
+  Optional<Book> findByNaturalIsbn(String isbn);
+}
@@ -0,0 +1,18 @@
+package com.neitex.bookstoreservice.repository;
+
+import com.neitex.bookstoreservice.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Optional;
+import org.hibernate.Session;
+
+class BookNaturalIdRepositoryImpl implements BookNaturalIdRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public Optional<Book> findByNaturalIsbn(String isbn) {
+    return entityManager.unwrap(Session.class).bySimpleNaturalId(Book.class).loadOptional(isbn);
+  }
+}
@@ -1,23 +1,159 @@
 package com.neitex.bookstoreservice.repository;
 
 import com.neitex.bookstoreservice.entity.Book;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+/**
+ * {@link Book#getAuthor()} is lazy; every method returning books for a response loads authors in
+ * the same statement, so a page of books costs a single query.
+ */
 @Repository
-public interface BookRepository extends CrudRepository<Book, Long> {
+public interface BookRepository extends CrudRepository<Book, Long>, BookNaturalIdRepository {
 
+  /**
+   * Weighted PostgreSQL text-search document of a book: title ranks above description, which
+   * ranks above genre. Shared by {@link #searchIds} and the GIN index that serves it, which only
+   * matches queries using the identical expression.
+   */
+  String SEARCH_DOCUMENT = "setweight(to_tsvector('english', coalesce(title, '')), 'A') || "
+      + "setweight(to_tsvector('english', coalesce(description, '')), 'B') || "
+      + "setweight(to_tsvector('english', coalesce(genre, '')), 'C')";
+
+  @EntityGraph(attributePaths = "author")
   Optional<Book> findBookByIsbn(String isbn);
 
   boolean existsByIsbn(String isbn);
 
+  /**
+   * Reads the ISBN from the database, unlike {@code findById}, which may be served from this
+   * instance's second-level cache.
+   */
+  @Query("select b.isbn from Book b where b.id = :id")
+  Optional<String> findIsbnById(@Param("id") Long id);
+
+  @Query("select b.isbn from Book b where b.isbn in :isbns")
+  List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
   @NonNull
+  @EntityGraph(attributePaths = "author")
+  Optional<Book> findById(@NonNull Long id);
+
+  @NonNull
+  @EntityGraph(attributePaths = "author")
   List<Book> findAll();
 
-  List<Book> findBooksByAuthorId(Long authorId);
+  @EntityGraph(attributePaths = "author")
+  List<Book> findByIdIn(Collection<Long> ids);
+
+  @EntityGraph(attributePaths = "author")
+  Slice<Book> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+  @EntityGraph(attributePaths = "author")
+  Slice<Book> findByAuthorIdAndIdGreaterThanOrderById(Long authorId, Long id, Pageable pageable);
 
   int countBooksByAuthorId(Long authorId);
+
+  /**
+   * Books matching every given criterion; a {@code null} criterion matches all books.
+   *
+   * @param titlePattern lower-case {@code like} pattern for the title, escaped with {@code \}
+   */
+  @EntityGraph(attributePaths = "author")
+  @Query("select b from Book b where (:genre is null or b.genre = :genre)"
+      + " and (:authorId is null or b.author.id = :authorId)"
+      + " and (:titlePattern is null or lower(b.title) like :titlePattern escape '\\')"
+      + " and b.id > :after order by b.id")
+  Slice<Book> filter(@Param("genre") String genre, @Param("authorId") Long authorId,
+      @Param("titlePattern") String titlePattern, @Param("after") Long after, Pageable pageable);
+
+  /**
+   * Number of books per genre among those matching the author and title criteria, most common
+   * genres first.
+   */
+  @Query("select b.genre as genre, count(b) as bookCount from Book b"
+      + " where (:authorId is null or b.author.id = :authorId)"
+      + " and (:titlePattern is null or lower(b.title) like :titlePattern escape '\\')"
+      + " group by b.genre order by count(b) desc, b.genre")
+  List<GenreCount> countByGenre(@Param("authorId") Long authorId,
+      @Param("titlePattern") String titlePattern, Pageable pageable);
+
+  /**
+   * Number of books per author among those matching the genre and title criteria, authors with
+   * most books first.
+   */
+  @Query("select a.id as id, a.name as name, count(b) as bookCount from Book b join b.author a"
+      + " where (:genre is null or b.genre = :genre)"
+      + " and (:titlePattern is null or lower(b.title) like :titlePattern escape '\\')"
+      + " group by a.id, a.name order by count(b) desc, a.id")
+  List<AuthorCount> countByAuthor(@Param("genre") String genre,
+      @Param("titlePattern") String titlePattern, Pageable pageable);
+
+  /**
+   * All books with their authors, read through a forward-only cursor. Must be consumed inside a
+   * transaction and closed afterwards.
+   */
+  @Query("select b from Book b join fetch b.author order by b.id")
+  @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+  Stream<Book> streamAll();
+
+  @Query("select b.id from Book b where b.id >= :from and b.id < :to order by b.id")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<Long> streamIdsBetween(@Param("from") Long from, @Param("to") Long to);
+
+  @Query("select b.id from Book b where b.id >= :from and b.id < :to order by b.id")
+  List<Long> findIdsBetween(@Param("from") Long from, @Param("to") Long to);
+
+  @Query("select b.id from Book b where b.id in :ids")
+  List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+  @Query("select b.id as id, b.isbn as isbn from Book b")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  Stream<BookIsbn> streamIsbns();
+
+  /**
+   * IDs of books matching a web-search style query ({@code "quoted phrases"}, {@code or},
+   * {@code -excluded}), best matches first. PostgreSQL only.
+   */
+  @Query(value = "select id from books, websearch_to_tsquery('english', :query) q"
+      + " where " + SEARCH_DOCUMENT + " @@ q"
+      + " order by ts_rank(" + SEARCH_DOCUMENT + ", q) desc, id", nativeQuery = true)
+  Slice<Long> searchIds(@Param("query") String query, Pageable pageable);
+
+  interface GenreCount {
+
+    String getGenre();
+
+    Long getBookCount();
+  }
+
+  interface AuthorCount {
+
+    Long getId();
+
+    String getName();
+
+    Long getBookCount();
+  }
+
+  interface BookIsbn {
+
+    Long getId();
+
+    String getIsbn();
+  }
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.neitex.bookstoreservice.repository;
+
+import com.neitex.bookstoreservice.entity.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends CrudRepository<OutboxEvent, Long> {
+
+  /**
+   * Oldest pending events, locked until the end of the transaction so that relays of several
+   * instances don't deliver the same events. IDs come from a pooled sequence, so the order is
+   * only roughly the order in which events were written.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<OutboxEvent> findByOrderById(Pageable pageable);
+
+  @Modifying
+  @Query("delete from OutboxEvent e where e.id in :ids")
+  int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+  @Query("select distinct e.bookId from OutboxEvent e where e.bookId >= :from and e.bookId < :to")
+  List<Long> findPendingBookIds(@Param("from") Long from, @Param("to") Long to);
+}
@@ -3,15 +3,17 @@ package com.neitex.bookstoreservice.service;
 import com.neitex.bookstoreservice.dto.AuthorRequestDTO;
 import com.neitex.bookstoreservice.dto.AuthorResponseDTO;
 import com.neitex.bookstoreservice.entity.Author;
+import com.neitex.bookstoreservice.event.AuthorChangedEvent;
 import com.neitex.bookstoreservice.exception.AuthorAlreadyExistsException;
 import com.neitex.bookstoreservice.exception.AuthorDoesNotExist;
 import com.neitex.bookstoreservice.exception.AuthorHasBooksException;
 import com.neitex.bookstoreservice.repository.AuthorRepository;
+import com.neitex.bookstoreservice.util.Pagination;
 import jakarta.transaction.Transactional;
-import java.util.List;
 import java.util.Objects;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -21,12 +23,14 @@ public class AuthorService {
 
   private final AuthorRepository authorRepository;
   private final BookService bookService;
-  private final ModelMapper modelMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
-  public List<AuthorResponseDTO> getAuthors() {
-    return authorRepository.findAll().stream()
-        .map(author -> modelMapper.map(author, AuthorResponseDTO.class))
-        .toList();
+  /**
+   * @param after ID of the last author of the previous page
+   */
+  public Slice<AuthorResponseDTO> getAuthors(Long after, Integer size) {
+    return authorRepository.findByIdGreaterThanOrderById(after, Pagination.firstPage(size))
+        .map(AuthorResponseDTO::from);
   }
 
   public AuthorResponseDTO createAuthor(AuthorRequestDTO author) {
@@ -41,7 +45,8 @@ public class AuthorService {
     Author newAuthor = new Author();
     newAuthor.setName(author.getName());
     newAuthor = authorRepository.save(newAuthor);
-    return modelMapper.map(newAuthor, AuthorResponseDTO.class);
+    eventPublisher.publishEvent(new AuthorChangedEvent(newAuthor.getId(), newAuthor.getName()));
+    return AuthorResponseDTO.from(newAuthor);
   }
 
   public AuthorResponseDTO updateAuthor(Long id, AuthorRequestDTO author) {
@@ -53,7 +58,9 @@ public class AuthorService {
       existingAuthor.setName(author.getName());
     }
     existingAuthor = authorRepository.save(existingAuthor);
-    return modelMapper.map(existingAuthor, AuthorResponseDTO.class);
+    eventPublisher.publishEvent(
+        new AuthorChangedEvent(existingAuthor.getId(), existingAuthor.getName()));
+    return AuthorResponseDTO.from(existingAuthor);
   }
 
   public void deleteAuthor(Long id) {
@@ -65,12 +72,13 @@ public class AuthorService {
       throw new AuthorHasBooksException("Cannot delete author with books");
     }
     authorRepository.deleteById(id);
+    eventPublisher.publishEvent(new AuthorChangedEvent(id, null));
   }
 
   public AuthorResponseDTO findAuthorById(Long id) {
     Objects.requireNonNull(id);
     Author author = authorRepository.findById(id)
         .orElseThrow(() -> new AuthorDoesNotExist("Author with id " + id + " not found"));
-    return modelMapper.map(author, AuthorResponseDTO.class);
+    return AuthorResponseDTO.from(author);
   }
 }
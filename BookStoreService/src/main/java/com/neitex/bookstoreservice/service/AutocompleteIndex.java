@@ -0,0 +1,144 @@
+package com.neitex.bookstoreservice.service;
+
+import com.neitex.bookstoreservice.dto.SuggestionDTO;
+import com.neitex.bookstoreservice.dto.SuggestionDTO.SuggestionType;
+import com.neitex.bookstoreservice.entity.Author;
+import com.neitex.bookstoreservice.event.AuthorChangedEvent;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
+import com.neitex.bookstoreservice.repository.AuthorRepository;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.util.Pagination;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Prefix index of book titles and author names, answering typeahead queries without the
+ * database. Built at startup and updated after every committed book or author change.
+ *
+ * <p>Every word of a title or name starts a key, so "mess" finds "Dune Messiah". Keys are kept
+ * sorted, and a query reads the first entries at or after its prefix.
+ */
+@Component
+@AllArgsConstructor
+public class AutocompleteIndex {
+
+  public static final int MAX_LIMIT = 50;
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  // sorts below every character a text can contain, so "dune" keys come before "dune messiah"
+  private static final char KEY_SEPARATOR = '\0';
+
+  private final BookService bookService;
+  private final BookRepository bookRepository;
+  private final AuthorRepository authorRepository;
+  private final NavigableMap<String, SuggestionDTO> suggestions = new ConcurrentSkipListMap<>();
+  /**
+   * Keys of every indexed book or author, to remove it from {@link #suggestions}.
+   */
+  private final Map<String, List<String>> keys = new ConcurrentHashMap<>();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    bookService.forEachBook(book -> put(SuggestionType.BOOK, book.getId(), book.getTitle()));
+    Slice<Author> authors;
+    long after = 0;
+    do {
+      authors = authorRepository.findByIdGreaterThanOrderById(after,
+          Pagination.firstPage(Pagination.MAX_PAGE_SIZE));
+      for (Author author : authors) {
+        put(SuggestionType.AUTHOR, author.getId(), author.getName());
+        after = author.getId();
+      }
+    } while (authors.hasNext());
+  }
+
+  /**
+   * @param limit number of suggestions, clamped to {@code [1, MAX_LIMIT]}
+   * @return books and authors with a word starting with {@code prefix}, in alphabetical order of
+   * the text from that word on
+   */
+  public List<SuggestionDTO> suggest(String prefix, int limit) {
+    String normalized = normalize(prefix);
+    if (normalized.isEmpty()) {
+      return List.of();
+    }
+    int limited = Math.max(1, Math.min(limit, MAX_LIMIT));
+    // a title repeating a word has several matching keys; keep its first
+    Map<String, SuggestionDTO> found = new LinkedHashMap<>();
+    for (Map.Entry<String, SuggestionDTO> entry : suggestions.tailMap(normalized).entrySet()) {
+      if (!entry.getKey().startsWith(normalized) || found.size() == limited) {
+        break;
+      }
+      SuggestionDTO suggestion = entry.getValue();
+      found.putIfAbsent(owner(suggestion.getType(), suggestion.getId()), suggestion);
+    }
+    return new ArrayList<>(found.values());
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (event.isbn() == null) {
+      remove(SuggestionType.BOOK, event.id());
+      return;
+    }
+    bookRepository.findById(event.id()).ifPresentOrElse(
+        book -> put(SuggestionType.BOOK, book.getId(), book.getTitle()),
+        () -> remove(SuggestionType.BOOK, event.id()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAuthorChanged(AuthorChangedEvent event) {
+    if (event.name() == null) {
+      remove(SuggestionType.AUTHOR, event.id());
+    } else {
+      put(SuggestionType.AUTHOR, event.id(), event.name());
+    }
+  }
+
+  public synchronized void put(SuggestionType type, Long id, String text) {
+    remove(type, id);
+    if (text == null) {
+      return;
+    }
+    SuggestionDTO suggestion = new SuggestionDTO(type, id, text);
+    String owner = owner(type, id);
+    String normalized = normalize(text);
+    List<String> ownerKeys = new ArrayList<>();
+    for (int i = 0; i < normalized.length(); i++) {
+      if (i == 0 || normalized.charAt(i - 1) == ' ') {
+        String key = normalized.substring(i) + KEY_SEPARATOR + owner;
+        suggestions.put(key, suggestion);
+        ownerKeys.add(key);
+      }
+    }
+    keys.put(owner, ownerKeys);
+  }
+
+  public synchronized void remove(SuggestionType type, Long id) {
+    List<String> previous = keys.remove(owner(type, id));
+    if (previous != null) {
+      previous.forEach(suggestions::remove);
+    }
+  }
+
+  private static String owner(SuggestionType type, Long id) {
+    return type.name() + ':' + id;
+  }
+
+  private static String normalize(String text) {
+    return text == null ? ""
+        : WHITESPACE.matcher(text.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+  }
+}
@@ -0,0 +1,207 @@
+package com.neitex.bookstoreservice.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.neitex.bookstoreservice.dto.BookImportDTO;
+import com.neitex.bookstoreservice.dto.BookImportResponseDTO;
+import com.neitex.bookstoreservice.dto.BookImportResponseDTO.RowResult;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
+import com.neitex.bookstoreservice.entity.Author;
+import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.entity.OutboxEvent;
+import com.neitex.bookstoreservice.event.AuthorChangedEvent;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
+import com.neitex.bookstoreservice.repository.AuthorRepository;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
+import com.neitex.bookstoreservice.util.IsbnUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports books in chunks of {@code books.import.chunk-size} rows. Each chunk is checked with a
+ * few set-based queries, inserted in JDBC batches together with its LibraryService updates and
+ * committed on its own. Rows that fail a check are reported and skipped without affecting the
+ * others. A chunk that still violates a database constraint, e.g. because the same book was
+ * created concurrently, is retried row by row.
+ */
+@Service
+public class BookImportService {
+
+  private final BookRepository bookRepository;
+  private final AuthorRepository authorRepository;
+  private final OutboxEventRepository outboxEventRepository;
+  private final IsbnIndex isbnIndex;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+
+  public BookImportService(BookRepository bookRepository, AuthorRepository authorRepository,
+      OutboxEventRepository outboxEventRepository, IsbnIndex isbnIndex,
+      ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+      @Value("${books.import.chunk-size:1000}") Integer chunkSize) {
+    this.bookRepository = bookRepository;
+    this.authorRepository = authorRepository;
+    this.outboxEventRepository = outboxEventRepository;
+    this.isbnIndex = isbnIndex;
+    this.eventPublisher = eventPublisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Reading stops at the first row that cannot be parsed; it is reported as failed and the rows
+   * after it are not reported.
+   */
+  public BookImportResponseDTO importBooks(MappingIterator<BookImportDTO> rows) {
+    List<RowResult> results = new ArrayList<>();
+    List<BookImportDTO> chunk = new ArrayList<>(chunkSize);
+    String unreadable = null;
+    try {
+      while (rows.hasNextValue()) {
+        chunk.add(rows.nextValue());
+        if (chunk.size() == chunkSize) {
+          results.addAll(importChunk(chunk, results.size()));
+          chunk.clear();
+        }
+      }
+    } catch (IOException e) {
+      unreadable = e.getMessage();
+    }
+    results.addAll(importChunk(chunk, results.size()));
+    if (unreadable != null) {
+      results.add(failed(results.size(), "Unreadable row: " + unreadable));
+    }
+    int created = (int) results.stream().filter(result -> result.getId() != null).count();
+    return new BookImportResponseDTO(created, results.size() - created, results);
+  }
+
+  private List<RowResult> importChunk(List<BookImportDTO> chunk, int firstRow) {
+    if (chunk.isEmpty()) {
+      return List.of();
+    }
+    try {
+      return insertChunk(chunk, firstRow);
+    } catch (DataIntegrityViolationException e) {
+      if (chunk.size() == 1) {
+        return List.of(failed(firstRow, violationError(chunk.get(0), e)));
+      }
+      List<RowResult> results = new ArrayList<>(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+        results.addAll(importChunk(List.of(chunk.get(i)), firstRow + i));
+      }
+      return results;
+    }
+  }
+
+  private List<RowResult> insertChunk(List<BookImportDTO> chunk, int firstRow) {
+    return transactionTemplate.execute(status -> {
+      RowResult[] results = new RowResult[chunk.size()];
+      String[] isbns = new String[chunk.size()];
+      Set<String> requestedIsbns = new HashSet<>();
+      for (int i = 0; i < chunk.size(); i++) {
+        BookImportDTO row = chunk.get(i);
+        if (row == null || row.getIsbn() == null || row.getTitle() == null
+            || (row.getAuthorId() == null && row.getAuthorName() == null)) {
+          results[i] = failed(firstRow + i, "ISBN, title and author ID or name are required");
+          continue;
+        }
+        isbns[i] = IsbnUtils.normalize(row.getIsbn());
+        if (!requestedIsbns.add(isbns[i])) {
+          results[i] = failed(firstRow + i,
+              String.format("Book with ISBN %s appears earlier in the import", row.getIsbn()));
+        }
+      }
+      Set<String> existingIsbns = isbnIndex.findExisting(requestedIsbns);
+      Map<Long, Author> authorsById = new HashMap<>();
+      authorRepository.findAllById(chunk.stream()
+              .filter(Objects::nonNull).map(BookImportDTO::getAuthorId).filter(Objects::nonNull)
+              .collect(Collectors.toSet()))
+          .forEach(author -> authorsById.put(author.getId(), author));
+      Map<String, Author> authorsByName = authorRepository.findByNameIn(chunk.stream()
+              .filter(Objects::nonNull).map(BookImportDTO::getAuthorName).filter(Objects::nonNull)
+              .collect(Collectors.toSet())).stream()
+          .collect(Collectors.toMap(Author::getName, Function.identity(),
+              (first, ignored) -> first));
+
+      List<Author> newAuthors = new ArrayList<>();
+      List<Book> books = new ArrayList<>();
+      List<Integer> bookRows = new ArrayList<>();
+      for (int i = 0; i < chunk.size(); i++) {
+        if (results[i] != null) {
+          continue;
+        }
+        BookImportDTO row = chunk.get(i);
+        if (existingIsbns.contains(isbns[i])) {
+          results[i] = failed(firstRow + i,
+              String.format("Book with ISBN %s already exists", row.getIsbn()));
+          continue;
+        }
+        Author author;
+        if (row.getAuthorId() != null) {
+          author = authorsById.get(row.getAuthorId());
+          if (author == null) {
+            results[i] = failed(firstRow + i,
+                String.format("Author with ID %s does not exist", row.getAuthorId()));
+            continue;
+          }
+        } else {
+          author = authorsByName.computeIfAbsent(row.getAuthorName(), name -> {
+            Author created = new Author();
+            created.setName(name);
+            newAuthors.add(created);
+            return created;
+          });
+        }
+        Book book = new Book();
+        book.setIsbn(isbns[i]);
+        book.setTitle(row.getTitle());
+        book.setAuthor(author);
+        book.setGenre(row.getGenre());
+        book.setDescription(row.getDescription());
+        books.add(book);
+        bookRows.add(i);
+      }
+
+      authorRepository.saveAll(newAuthors);
+      bookRepository.saveAll(books);
+      List<OutboxEvent> updates = new ArrayList<>(books.size());
+      for (int i = 0; i < books.size(); i++) {
+        Book book = books.get(i);
+        int index = bookRows.get(i);
+        results[index] = new RowResult(firstRow + index, book.getId(), null);
+        updates.add(new OutboxEvent(book.getId(), BookUpdateType.CREATED));
+        eventPublisher.publishEvent(new BookChangedEvent(book.getId(), null, book.getIsbn()));
+      }
+      newAuthors.forEach(author -> eventPublisher.publishEvent(
+          new AuthorChangedEvent(author.getId(), author.getName())));
+      outboxEventRepository.saveAll(updates);
+      return Arrays.asList(results);
+    });
+  }
+
+  private String violationError(BookImportDTO row, DataIntegrityViolationException e) {
+    if (!isbnIndex.findExisting(Set.of(IsbnUtils.normalize(row.getIsbn()))).isEmpty()) {
+      return String.format("Book with ISBN %s already exists", row.getIsbn());
+    }
+    return "Row violates a database constraint: " + e.getMostSpecificCause().getMessage();
+  }
+
+  private static RowResult failed(int row, String error) {
+    return new RowResult(row, null, error);
+  }
+}
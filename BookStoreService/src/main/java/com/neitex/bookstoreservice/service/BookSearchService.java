@@ -0,0 +1,47 @@
+package com.neitex.bookstoreservice.service;
+
+import com.neitex.bookstoreservice.dto.BookResponseDTO;
+import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.exception.MissingFieldException;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.service.search.BookSearch;
+import com.neitex.bookstoreservice.util.Pagination;
+import jakarta.transaction.Transactional;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+
+@Service
+@AllArgsConstructor
+@Transactional
+public class BookSearchService {
+
+  private final BookSearch bookSearch;
+  private final BookRepository bookRepository;
+
+  /**
+   * @param page zero-based page number
+   * @return matching books, most relevant first
+   */
+  public Slice<BookResponseDTO> search(String query, Integer page, Integer size) {
+    if (query == null || query.isBlank()) {
+      throw new MissingFieldException("Search query is required");
+    }
+    Slice<Long> ids = bookSearch.search(query, Pagination.page(page, size));
+    Map<Long, Book> books = bookRepository.findByIdIn(ids.getContent()).stream()
+        .collect(Collectors.toMap(Book::getId, Function.identity()));
+    // keep the ranking order; books deleted since the search are skipped
+    List<BookResponseDTO> content = ids.getContent().stream()
+        .map(books::get)
+        .filter(Objects::nonNull)
+        .map(BookResponseDTO::from)
+        .toList();
+    return new SliceImpl<>(content, ids.getPageable(), ids.hasNext());
+  }
+}
@@ -1,24 +1,37 @@
 package com.neitex.bookstoreservice.service;
 
-import com.neitex.bookstoreservice.client.LibraryClient;
+import com.neitex.bookstoreservice.dto.BookFilterResponseDTO;
+import com.neitex.bookstoreservice.dto.BookFilterResponseDTO.AuthorCount;
+import com.neitex.bookstoreservice.dto.BookFilterResponseDTO.GenreCount;
 import com.neitex.bookstoreservice.dto.BookRequestDTO;
 import com.neitex.bookstoreservice.dto.BookResponseDTO;
-import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
 import com.neitex.bookstoreservice.entity.Author;
 import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.entity.OutboxEvent;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
 import com.neitex.bookstoreservice.exception.AuthorDoesNotExist;
 import com.neitex.bookstoreservice.exception.BookAlreadyExistsException;
 import com.neitex.bookstoreservice.exception.BookDoesNotExist;
 import com.neitex.bookstoreservice.exception.MissingFieldException;
 import com.neitex.bookstoreservice.repository.AuthorRepository;
 import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
+import com.neitex.bookstoreservice.util.IsbnUtils;
 import com.neitex.bookstoreservice.util.NullUtils;
+import com.neitex.bookstoreservice.util.Pagination;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -26,20 +39,27 @@ import org.springframework.stereotype.Service;
 @Transactional
 public class BookService {
 
+  /**
+   * Number of values returned per facet, most common first.
+   */
+  public static final int FACET_SIZE = 100;
+
   private final BookRepository bookRepository;
   private final AuthorRepository authorRepository;
-  private final ModelMapper modelMapper;
-  private final LibraryClient libraryClient;
+  private final OutboxEventRepository outboxEventRepository;
+  private final EntityManager entityManager;
+  private final IsbnIndex isbnIndex;
+  private final ApplicationEventPublisher eventPublisher;
 
   public BookResponseDTO getBookByID(Long id) {
-    return bookRepository.findById(id).map(book -> modelMapper.map(book, BookResponseDTO.class))
+    return bookRepository.findById(id).map(BookResponseDTO::from)
         .orElseThrow(
             () -> new BookDoesNotExist(String.format("Book with ID %s does not exist", id)));
   }
 
   public BookResponseDTO findBookByIsbn(String isbn) {
-    return bookRepository.findBookByIsbn(isbn)
-        .map(book -> modelMapper.map(book, BookResponseDTO.class)).orElseThrow(
+    return isbnIndex.find(isbn)
+        .map(BookResponseDTO::from).orElseThrow(
             () -> new BookDoesNotExist(String.format("Book with ISBN %s does not exist", isbn)));
   }
 
@@ -48,7 +68,7 @@ public class BookService {
   }
 
   public boolean bookExistsByIsbn(String isbn) {
-    return bookRepository.existsByIsbn(isbn);
+    return isbnIndex.exists(isbn);
   }
 
   public BookResponseDTO updateBook(Long id, BookRequestDTO bookRequestDTO) {
@@ -61,12 +81,13 @@ public class BookService {
     if (bookRequestDTO.getIsbn() == null) {
       throw new MissingFieldException("ISBN is required");
     }
-    if (!bookRequestDTO.getIsbn().equals(existingBook.getIsbn()) && bookExistsByIsbn(
-        bookRequestDTO.getIsbn())) {
+    String previousIsbn = existingBook.getIsbn();
+    String isbn = IsbnUtils.normalize(bookRequestDTO.getIsbn());
+    if (!isbn.equals(IsbnUtils.normalize(previousIsbn)) && bookExistsByIsbn(isbn)) {
       throw new BookAlreadyExistsException(
           String.format("Book with ISBN %s already exists", bookRequestDTO.getIsbn()));
     }
-    existingBook.setIsbn(bookRequestDTO.getIsbn());
+    existingBook.setIsbn(isbn);
     if (bookRequestDTO.getTitle() == null) {
       throw new MissingFieldException("Title is required");
     }
@@ -84,7 +105,8 @@ public class BookService {
     existingBook.setGenre(bookRequestDTO.getGenre());
     existingBook.setDescription(bookRequestDTO.getDescription());
     Book saved = bookRepository.save(existingBook);
-    return modelMapper.map(saved, BookResponseDTO.class);
+    eventPublisher.publishEvent(new BookChangedEvent(saved.getId(), previousIsbn, isbn));
+    return BookResponseDTO.from(saved);
   }
 
   public BookResponseDTO createBook(BookRequestDTO bookRequestDTO) {
@@ -93,7 +115,8 @@ public class BookService {
         bookRequestDTO.getAuthorId())) {
       throw new MissingFieldException("ISBN, title and author ID are required");
     }
-    if (bookExistsByIsbn(bookRequestDTO.getIsbn())) {
+    String isbn = IsbnUtils.normalize(bookRequestDTO.getIsbn());
+    if (bookExistsByIsbn(isbn)) {
       throw new BookAlreadyExistsException(
           String.format("Book with ISBN %s already exists", bookRequestDTO.getIsbn()));
     }
@@ -103,40 +126,101 @@ public class BookService {
           String.format("Author with ID %s does not exist", bookRequestDTO.getAuthorId()));
     }
     Book book = new Book();
-    book.setIsbn(bookRequestDTO.getIsbn());
+    book.setIsbn(isbn);
     book.setTitle(bookRequestDTO.getTitle());
     book.setAuthor(author.get());
     book.setGenre(bookRequestDTO.getGenre());
     book.setDescription(bookRequestDTO.getDescription());
     Book saved = bookRepository.save(book);
-    libraryClient.updateBook(
-        new BookUpdateRequestDTO(saved.getId(), BookUpdateRequestDTO.BookUpdateType.CREATED));
-    return modelMapper.map(saved, BookResponseDTO.class);
+    eventPublisher.publishEvent(new BookChangedEvent(saved.getId(), null, isbn));
+    outboxEventRepository.save(new OutboxEvent(saved.getId(), BookUpdateType.CREATED));
+    return BookResponseDTO.from(saved);
   }
 
   public void deleteBook(Long id) {
-    if (!bookExistsById(id)) {
+    Optional<Book> book = bookRepository.findById(id);
+    if (book.isEmpty()) {
       return;
     }
-    libraryClient.updateBook(
-        new BookUpdateRequestDTO(id, BookUpdateRequestDTO.BookUpdateType.DELETED));
+    outboxEventRepository.save(new OutboxEvent(id, BookUpdateType.DELETED));
     bookRepository.deleteById(id);
+    eventPublisher.publishEvent(new BookChangedEvent(id, book.get().getIsbn(), null));
+  }
+
+  /**
+   * @param after ID of the last book of the previous page
+   */
+  public Slice<BookResponseDTO> getBooks(Long after, Integer size) {
+    return bookRepository.findByIdGreaterThanOrderById(after, Pagination.firstPage(size))
+        .map(BookResponseDTO::from);
+  }
+
+  /**
+   * Passes every book to {@code consumer} in ID order without loading the whole catalogue: books
+   * are read through a database cursor and detached once converted.
+   */
+  public void forEachBook(Consumer<BookResponseDTO> consumer) {
+    try (Stream<Book> books = bookRepository.streamAll()) {
+      books.forEach(book -> {
+        consumer.accept(BookResponseDTO.from(book));
+        entityManager.detach(book);
+        entityManager.detach(book.getAuthor());
+      });
+    }
   }
 
-  public List<BookResponseDTO> getBooks() {
-    return bookRepository.findAll().stream()
-        .map(book -> modelMapper.map(book, BookResponseDTO.class)).toList();
+  /**
+   * Books matching every given criterion, a {@code null} criterion matching all.
+   *
+   * @param keyword case-insensitive substring of the title
+   * @param after   ID of the last book of the previous page
+   */
+  public Slice<BookResponseDTO> filterBooks(String genre, Long authorId, String keyword,
+      Long after, Integer size) {
+    return bookRepository.filter(genre, authorId, titlePattern(keyword), after,
+        Pagination.firstPage(size)).map(BookResponseDTO::from);
+  }
+
+  /**
+   * Adds counts per genre and author, computed by the database, to a page of
+   * {@link #filterBooks} results. Genres are counted ignoring the genre criterion and authors
+   * ignoring the author criterion.
+   */
+  public BookFilterResponseDTO withFacets(List<BookResponseDTO> books, String genre,
+      Long authorId, String keyword) {
+    String titlePattern = titlePattern(keyword);
+    PageRequest facetPage = PageRequest.of(0, FACET_SIZE);
+    List<GenreCount> genres = bookRepository.countByGenre(authorId, titlePattern, facetPage)
+        .stream()
+        .map(count -> new GenreCount(count.getGenre(), count.getBookCount()))
+        .toList();
+    List<AuthorCount> authors = bookRepository.countByAuthor(genre, titlePattern, facetPage)
+        .stream()
+        .map(count -> new AuthorCount(count.getId(), count.getName(), count.getBookCount()))
+        .toList();
+    return new BookFilterResponseDTO(books, genres, authors);
+  }
+
+  private static String titlePattern(String keyword) {
+    if (keyword == null || keyword.isBlank()) {
+      return null;
+    }
+    String escaped = keyword.strip().toLowerCase(Locale.ROOT)
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+    return "%" + escaped + "%";
   }
 
   public int countBooksByAuthor(Long authorId) {
     return bookRepository.countBooksByAuthorId(authorId);
   }
 
-  public List<BookResponseDTO> findBooksByAuthor(Long authorId) {
+  public Slice<BookResponseDTO> findBooksByAuthor(Long authorId, Long after, Integer size) {
     if (!authorRepository.existsById(authorId)) {
       throw new AuthorDoesNotExist(String.format("Author with ID %s does not exist", authorId));
     }
-    return bookRepository.findBooksByAuthorId(authorId).stream()
-        .map(book -> modelMapper.map(book, BookResponseDTO.class)).toList();
+    return bookRepository.findByAuthorIdAndIdGreaterThanOrderById(authorId, after,
+        Pagination.firstPage(size)).map(BookResponseDTO::from);
   }
 }
@@ -0,0 +1,161 @@
+package com.neitex.bookstoreservice.service;
+
+import com.neitex.bookstoreservice.client.LibraryClient;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
+import com.neitex.bookstoreservice.dto.IdRangeDigestDTO;
+import com.neitex.bookstoreservice.entity.OutboxEvent;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Finds books whose lease in LibraryService is missing or outlived the book and queues the
+ * missing updates in the outbox. Both services digest their IDs by range, and only ranges with
+ * different digests are split further; IDs themselves are transferred only for ranges of at most
+ * {@code leafSize} books. Every digest is a single read-only pass over the range, so nothing is
+ * locked and memory use doesn't depend on the number of books.
+ */
+@Slf4j
+@Component
+public class CatalogueReconciler {
+
+  private final BookRepository bookRepository;
+  private final OutboxEventRepository outboxEventRepository;
+  private final LibraryClient libraryClient;
+  private final TransactionTemplate readOnlyTransactionTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int fanOut;
+  private final int leafSize;
+
+  public CatalogueReconciler(BookRepository bookRepository,
+      OutboxEventRepository outboxEventRepository, LibraryClient libraryClient,
+      PlatformTransactionManager transactionManager,
+      @Value("${books.reconciliation.fan-out:16}") Integer fanOut,
+      @Value("${books.reconciliation.leaf-size:1000}") Integer leafSize) {
+    this.bookRepository = bookRepository;
+    this.outboxEventRepository = outboxEventRepository;
+    this.libraryClient = libraryClient;
+    this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransactionTemplate.setReadOnly(true);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.fanOut = fanOut;
+    this.leafSize = leafSize;
+  }
+
+  /**
+   * @return number of updates queued for LibraryService
+   */
+  @Scheduled(cron = "${books.reconciliation.cron:0 0 3 * * *}")
+  public synchronized int reconcile() {
+    int repaired = reconcile(List.of(0L, Long.MAX_VALUE));
+    log.info("Catalogue reconciliation queued {} book updates for LibraryService", repaired);
+    return repaired;
+  }
+
+  private int reconcile(List<Long> bounds) {
+    List<IdRangeDigestDTO> local = digest(bounds);
+    List<IdRangeDigestDTO> remote = libraryClient.digestBookIds(bounds);
+    int repaired = 0;
+    for (int i = 0; i < local.size(); i++) {
+      IdRangeDigestDTO own = local.get(i);
+      IdRangeDigestDTO library = remote.get(i);
+      if (own.equals(library)) {
+        continue;
+      }
+      // narrow the range down to the IDs it actually holds on either side
+      long from = lowest(own, library);
+      long to = highest(own, library) + 1;
+      if (Math.max(own.getCount(), library.getCount()) <= leafSize) {
+        repaired += repair(from, to);
+      } else {
+        repaired += reconcile(split(from, to));
+      }
+    }
+    return repaired;
+  }
+
+  private static long lowest(IdRangeDigestDTO a, IdRangeDigestDTO b) {
+    if (a.getMinId() == null || b.getMinId() == null) {
+      return a.getMinId() == null ? b.getMinId() : a.getMinId();
+    }
+    return Math.min(a.getMinId(), b.getMinId());
+  }
+
+  private static long highest(IdRangeDigestDTO a, IdRangeDigestDTO b) {
+    if (a.getMaxId() == null || b.getMaxId() == null) {
+      return a.getMaxId() == null ? b.getMaxId() : a.getMaxId();
+    }
+    return Math.max(a.getMaxId(), b.getMaxId());
+  }
+
+  private List<Long> split(long from, long to) {
+    int parts = (int) Math.min(fanOut, to - from);
+    long width = (to - from) / parts;
+    List<Long> bounds = new ArrayList<>(parts + 1);
+    for (int i = 0; i < parts; i++) {
+      bounds.add(from + i * width);
+    }
+    bounds.add(to);
+    return bounds;
+  }
+
+  private List<IdRangeDigestDTO> digest(List<Long> bounds) {
+    return readOnlyTransactionTemplate.execute(status -> {
+      List<IdRangeDigestDTO> digests = new ArrayList<>(bounds.size() - 1);
+      for (int i = 1; i < bounds.size(); i++) {
+        digests.add(new IdRangeDigestDTO());
+      }
+      try (Stream<Long> ids = bookRepository.streamIdsBetween(bounds.get(0),
+          bounds.get(bounds.size() - 1))) {
+        int range = 0;
+        for (Iterator<Long> iterator = ids.iterator(); iterator.hasNext(); ) {
+          long id = iterator.next();
+          while (id >= bounds.get(range + 1)) {
+            range++;
+          }
+          digests.get(range).add(id);
+        }
+      }
+      return digests;
+    });
+  }
+
+  /**
+   * Queues a creation for every book in {@code [from, to)} without a lease and a deletion for
+   * every lease without a book. Books with updates still in the outbox are left alone, those
+   * updates will settle them.
+   */
+  private int repair(long from, long to) {
+    // fetched before the books, so that a book created in between has its update in the outbox
+    Set<Long> leased = new HashSet<>(libraryClient.getBookIds(from, to, leafSize));
+    return transactionTemplate.execute(status -> {
+      Set<Long> books = new TreeSet<>(bookRepository.findIdsBetween(from, to));
+      Set<Long> pending = new HashSet<>(outboxEventRepository.findPendingBookIds(from, to));
+      List<OutboxEvent> events = new ArrayList<>();
+      for (Long bookId : books) {
+        if (!leased.contains(bookId) && !pending.contains(bookId)) {
+          events.add(new OutboxEvent(bookId, BookUpdateType.CREATED));
+        }
+      }
+      for (Long bookId : new TreeSet<>(leased)) {
+        if (!books.contains(bookId) && !pending.contains(bookId)) {
+          events.add(new OutboxEvent(bookId, BookUpdateType.DELETED));
+        }
+      }
+      outboxEventRepository.saveAll(events);
+      return events.size();
+    });
+  }
+}
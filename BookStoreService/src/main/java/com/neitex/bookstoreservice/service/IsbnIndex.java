@@ -0,0 +1,135 @@
+package com.neitex.bookstoreservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.util.IsbnUtils;
+import jakarta.transaction.Transactional;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory index from normalized ISBN to book ID, loaded at startup and kept current from
+ * {@link BookChangedEvent}s. ISBNs known to be absent are remembered for a short time, so
+ * repeated lookups of missing books don't reach the database.
+ *
+ * <p>Other instances write to the same database, so every entry is verified against the ISBN the
+ * database holds for its book, bypassing the second-level cache, which is local to the instance
+ * too. Absences expire after {@code books.isbn-index.miss-cache.ttl} milliseconds.
+ */
+@Component
+public class IsbnIndex {
+
+  private final BookRepository bookRepository;
+  private final Map<String, Long> ids = new ConcurrentHashMap<>();
+  private final Cache<String, Boolean> misses;
+
+  public IsbnIndex(BookRepository bookRepository,
+      @Value("${books.isbn-index.miss-cache.max-size:100000}") Long missCacheMaxSize,
+      @Value("${books.isbn-index.miss-cache.ttl:60000}") Long missCacheTtl) {
+    this.bookRepository = bookRepository;
+    this.misses = Caffeine.newBuilder()
+        .maximumSize(missCacheMaxSize)
+        .expireAfterWrite(Duration.ofMillis(missCacheTtl))
+        .build();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void load() {
+    try (Stream<BookRepository.BookIsbn> books = bookRepository.streamIsbns()) {
+      books.forEach(book -> ids.put(IsbnUtils.normalize(book.getIsbn()), book.getId()));
+    }
+  }
+
+  /**
+   * @param isbn ISBN in any formatting accepted by {@link IsbnUtils#normalize(String)}
+   */
+  public Optional<Book> find(String isbn) {
+    String key = IsbnUtils.normalize(isbn);
+    Long id = ids.get(key);
+    if (id != null) {
+      boolean current = bookRepository.findIsbnById(id)
+          .map(IsbnUtils::normalize).filter(key::equals).isPresent();
+      if (current) {
+        Optional<Book> book = bookRepository.findById(id);
+        if (book.isPresent()) {
+          return book;
+        }
+      }
+      ids.remove(key, id);
+    }
+    if (misses.getIfPresent(key) != null) {
+      return Optional.empty();
+    }
+    Optional<Book> book = bookRepository.findByNaturalIsbn(key);
+    book.ifPresentOrElse(found -> ids.put(key, found.getId()), () -> misses.put(key, true));
+    return book;
+  }
+
+  public boolean exists(String isbn) {
+    return find(isbn).isPresent();
+  }
+
+  /**
+   * Batch version of {@link #exists(String)} for many ISBNs, with at most two queries: one
+   * verifying indexed entries and one for the ISBNs the index doesn't know.
+   *
+   * @param isbns normalized ISBNs
+   * @return those of {@code isbns} that belong to a book
+   */
+  public Set<String> findExisting(Collection<String> isbns) {
+    Map<Long, String> indexed = new HashMap<>();
+    Set<String> unknown = new HashSet<>();
+    for (String isbn : isbns) {
+      Long id = ids.get(isbn);
+      if (id != null) {
+        indexed.put(id, isbn);
+      } else if (misses.getIfPresent(isbn) == null) {
+        unknown.add(isbn);
+      }
+    }
+    Set<String> existing = new HashSet<>();
+    if (!indexed.isEmpty()) {
+      for (Book book : bookRepository.findAllById(indexed.keySet())) {
+        String isbn = indexed.get(book.getId());
+        if (isbn.equals(IsbnUtils.normalize(book.getIsbn()))) {
+          existing.add(isbn);
+        }
+      }
+      // entries of deleted or changed books may now point to the wrong book
+      indexed.values().stream().filter(isbn -> !existing.contains(isbn)).forEach(unknown::add);
+    }
+    if (!unknown.isEmpty()) {
+      // books missing from the index were stored by other instances, already normalized
+      existing.addAll(bookRepository.findExistingIsbns(unknown));
+    }
+    return existing;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (event.previousIsbn() != null) {
+      ids.remove(IsbnUtils.normalize(event.previousIsbn()), event.id());
+    }
+    if (event.isbn() != null) {
+      String key = IsbnUtils.normalize(event.isbn());
+      ids.put(key, event.id());
+      misses.invalidate(key);
+    }
+  }
+}
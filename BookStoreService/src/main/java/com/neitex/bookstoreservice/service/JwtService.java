@@ -1,32 +1,87 @@
 package com.neitex.bookstoreservice.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.neitex.bookstoreservice.exception.BadJWTException;
 import com.neitex.bookstoreservice.security.GlobalUserDetails;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 @Service
 public class JwtService {
 
-  private final Algorithm algorithm;
+  private final JWTVerifier verifier;
+  /**
+   * Internal tokens are minted by the gateway and reused for every downstream call until they
+   * expire, so the user details decoded from a token are kept until the token itself expires (but
+   * no longer than the configured TTL). Only immutable data is cached: authentication objects are
+   * mutable and get attached to request-scoped security contexts, so each request gets its own.
+   */
+  private final Cache<String, CachedUserDetails> userDetailsCache;
 
-  public JwtService(@Value("${jwt.secret}") String jwtSigningKey) {
-    algorithm = Algorithm.HMAC256(jwtSigningKey);
+  public JwtService(@Value("${jwt.secret}") String jwtSigningKey,
+      @Value("${jwt.cache.max-size:10000}") Long cacheMaxSize,
+      @Value("${jwt.cache.ttl:120000}") Long cacheTtl) {
+    verifier = JWT.require(Algorithm.HMAC256(jwtSigningKey)).build();
+    Duration maxTtl = Duration.ofMillis(cacheTtl);
+    userDetailsCache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+        .expireAfter(Expiry.<String, CachedUserDetails>creating((token, cached) -> {
+          if (cached.expiresAt() == null) {
+            return maxTtl;
+          }
+          Duration untilExpiration = Duration.between(Instant.now(), cached.expiresAt());
+          return untilExpiration.compareTo(maxTtl) < 0 ? untilExpiration : maxTtl;
+        })).build();
   }
 
   public GlobalUserDetails getUserDetails(
       String token) { // kind of dirty, but I'm not sure book storage microservice should have users
+    return toUserDetails(verify(token));
+  }
+
+  /**
+   * Returns a new authentication for a token, verifying and decoding it only on the first use.
+   *
+   * @throws BadJWTException if the token is not valid
+   */
+  public UsernamePasswordAuthenticationToken getAuthentication(String token) {
+    CachedUserDetails cached = userDetailsCache.get(token, key -> {
+      DecodedJWT jwt = verify(key);
+      GlobalUserDetails userDetails = toUserDetails(jwt);
+      return new CachedUserDetails(userDetails, List.copyOf(userDetails.getAuthorities()),
+          jwt.getExpiresAtAsInstant());
+    });
+    return new UsernamePasswordAuthenticationToken(cached.userDetails(), null,
+        cached.authorities());
+  }
+
+  private DecodedJWT verify(String token) {
     try {
-      DecodedJWT jwt = JWT.require(algorithm).build().verify(token);
-      return new GlobalUserDetails(jwt.getClaim("login").asString(),
-          jwt.getClaim("role").asString(),
-          jwt.getClaim("name").asString(), jwt.getSubject());
+      return verifier.verify(token);
     } catch (JWTVerificationException | IllegalArgumentException e) {
       throw new BadJWTException("Invalid token");
     }
   }
+
+  private static GlobalUserDetails toUserDetails(DecodedJWT jwt) {
+    return new GlobalUserDetails(jwt.getClaim("login").asString(),
+        jwt.getClaim("role").asString(),
+        jwt.getClaim("name").asString(), jwt.getSubject());
+  }
+
+  private record CachedUserDetails(GlobalUserDetails userDetails,
+                                   List<GrantedAuthority> authorities, Instant expiresAt) {
+
+  }
 }
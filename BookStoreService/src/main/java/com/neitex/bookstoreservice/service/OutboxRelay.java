@@ -0,0 +1,101 @@
+package com.neitex.bookstoreservice.service;
+
+import com.neitex.bookstoreservice.client.LibraryClient;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
+import com.neitex.bookstoreservice.entity.OutboxEvent;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Delivers {@link OutboxEvent}s to LibraryService in batches, roughly oldest first, and deletes
+ * them once LibraryService has accepted them. A failed delivery leaves the batch in place and is
+ * retried with exponential backoff. Redelivery is harmless: creating a lease that exists or
+ * deleting one that doesn't is a no-op in LibraryService.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final BookRepository bookRepository;
+  private final LibraryClient libraryClient;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final long interval;
+  private final long maxBackoff;
+
+  private int failures = 0;
+  private long retryAt = 0;
+
+  public OutboxRelay(OutboxEventRepository outboxEventRepository, BookRepository bookRepository,
+      LibraryClient libraryClient, PlatformTransactionManager transactionManager,
+      @Value("${books.outbox.batch-size:500}") Integer batchSize,
+      @Value("${books.outbox.relay-interval:1000}") Long interval,
+      @Value("${books.outbox.max-backoff:60000}") Long maxBackoff) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.bookRepository = bookRepository;
+    this.libraryClient = libraryClient;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.interval = interval;
+    this.maxBackoff = maxBackoff;
+  }
+
+  @Scheduled(initialDelayString = "${books.outbox.relay-interval:1000}",
+      fixedDelayString = "${books.outbox.relay-interval:1000}")
+  public synchronized void relay() {
+    if (System.currentTimeMillis() < retryAt) {
+      return;
+    }
+    try {
+      int delivered;
+      do {
+        delivered = transactionTemplate.execute(status -> deliverBatch());
+      } while (delivered == batchSize);
+      failures = 0;
+    } catch (RuntimeException e) {
+      failures++;
+      long backoff = Math.min(maxBackoff, interval << Math.min(failures, 16));
+      retryAt = System.currentTimeMillis() + backoff;
+      log.warn("Failed to deliver book updates to LibraryService, retrying in {} ms: {}",
+          backoff, e.getMessage());
+    }
+  }
+
+  /**
+   * @return number of events taken from the outbox
+   */
+  private int deliverBatch() {
+    List<OutboxEvent> events = outboxEventRepository.findByOrderById(PageRequest.of(0, batchSize));
+    if (events.isEmpty()) {
+      return 0;
+    }
+    // Events of one book may be written by several instances with IDs from different sequence
+    // blocks, so their order doesn't tell which change came last. The books table does: a book
+    // that exists needs a lease and a missing one doesn't. A change committed after this read
+    // writes a new event, which is delivered with a later batch.
+    Set<Long> bookIds = events.stream().map(OutboxEvent::getBookId)
+        .collect(Collectors.toCollection(TreeSet::new));
+    Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(bookIds));
+    List<BookUpdateRequestDTO> updates = bookIds.stream()
+        .map(bookId -> new BookUpdateRequestDTO(bookId,
+            existing.contains(bookId) ? BookUpdateType.CREATED : BookUpdateType.DELETED))
+        .toList();
+    libraryClient.updateBooks(updates);
+    outboxEventRepository.deleteByIdIn(events.stream().map(OutboxEvent::getId).toList());
+    return events.size();
+  }
+}
@@ -0,0 +1,16 @@
+package com.neitex.bookstoreservice.service.search;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * Full-text search over book title, description and genre. The implementation is chosen with
+ * {@code books.search.engine}: {@code postgres} (default) or {@code in-memory}.
+ */
+public interface BookSearch {
+
+  /**
+   * @return IDs of matching books, most relevant first
+   */
+  Slice<Long> search(String query, Pageable pageable);
+}
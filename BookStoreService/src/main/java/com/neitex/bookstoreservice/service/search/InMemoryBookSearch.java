@@ -0,0 +1,147 @@
+package com.neitex.bookstoreservice.service.search;
+
+import com.neitex.bookstoreservice.event.BookChangedEvent;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.service.BookService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Search with an inverted index held in memory, for databases without PostgreSQL full-text
+ * search. The index is built at startup and updated after every committed book change.
+ *
+ * <p>Every query word must occur in the book. Words are matched exactly after lower-casing, with
+ * no stemming, and ranked like PostgreSQL's {@code ts_rank} default weights: a word in the title
+ * counts 1.0, in the description 0.4 and in the genre 0.2. Web-search operators are not
+ * supported.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "books.search.engine", havingValue = "in-memory")
+public class InMemoryBookSearch implements BookSearch {
+
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final float TITLE_WEIGHT = 1.0f;
+  private static final float DESCRIPTION_WEIGHT = 0.4f;
+  private static final float GENRE_WEIGHT = 0.2f;
+
+  private final BookService bookService;
+  private final BookRepository bookRepository;
+  /**
+   * Word to the score of every book containing it.
+   */
+  private final Map<String, Map<Long, Float>> postings = new ConcurrentHashMap<>();
+  /**
+   * Book ID to its words, to remove a book from {@link #postings}.
+   */
+  private final Map<Long, Set<String>> words = new ConcurrentHashMap<>();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    bookService.forEachBook(
+        book -> index(book.getId(), book.getTitle(), book.getDescription(), book.getGenre()));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookChanged(BookChangedEvent event) {
+    if (event.isbn() == null) {
+      remove(event.id());
+      return;
+    }
+    bookRepository.findById(event.id()).ifPresentOrElse(
+        book -> index(book.getId(), book.getTitle(), book.getDescription(), book.getGenre()),
+        () -> remove(event.id()));
+  }
+
+  public synchronized void index(Long id, String title, String description, String genre) {
+    remove(id);
+    Map<String, Float> scores = new HashMap<>();
+    addWords(scores, title, TITLE_WEIGHT);
+    addWords(scores, description, DESCRIPTION_WEIGHT);
+    addWords(scores, genre, GENRE_WEIGHT);
+    scores.forEach((word, score) ->
+        postings.computeIfAbsent(word, ignored -> new ConcurrentHashMap<>()).put(id, score));
+    words.put(id, scores.keySet());
+  }
+
+  public synchronized void remove(Long id) {
+    Set<String> previous = words.remove(id);
+    if (previous == null) {
+      return;
+    }
+    for (String word : previous) {
+      postings.computeIfPresent(word, (ignored, books) -> {
+        books.remove(id);
+        return books.isEmpty() ? null : books;
+      });
+    }
+  }
+
+  @Override
+  public Slice<Long> search(String query, Pageable pageable) {
+    List<Map<Long, Float>> matches = new ArrayList<>();
+    for (String word : split(query)) {
+      Map<Long, Float> books = postings.get(word);
+      if (books == null) {
+        return new SliceImpl<>(List.of(), pageable, false);
+      }
+      matches.add(books);
+    }
+    if (matches.isEmpty()) {
+      return new SliceImpl<>(List.of(), pageable, false);
+    }
+    // walk the rarest word's books and keep those containing every other word
+    matches.sort(Comparator.comparingInt(Map::size));
+    Map<Long, Float> ranked = new HashMap<>(matches.get(0));
+    for (Map<Long, Float> books : matches.subList(1, matches.size())) {
+      ranked.keySet().retainAll(books.keySet());
+      ranked.replaceAll((id, score) -> score + books.getOrDefault(id, 0f));
+    }
+    List<Long> ids = ranked.entrySet().stream()
+        .sorted(Map.Entry.<Long, Float>comparingByValue().reversed()
+            .thenComparing(Map.Entry.comparingByKey()))
+        .skip(pageable.getOffset())
+        .limit(pageable.getPageSize() + 1L)
+        .map(Map.Entry::getKey)
+        .toList();
+    boolean hasNext = ids.size() > pageable.getPageSize();
+    return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable,
+        hasNext);
+  }
+
+  private static void addWords(Map<String, Float> scores, String text, float weight) {
+    for (String word : split(text)) {
+      scores.merge(word, weight, Float::sum);
+    }
+  }
+
+  private static Set<String> split(String text) {
+    if (text == null) {
+      return Set.of();
+    }
+    Set<String> result = new LinkedHashSet<>();
+    for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!word.isEmpty()) {
+        result.add(word);
+      }
+    }
+    return result;
+  }
+}
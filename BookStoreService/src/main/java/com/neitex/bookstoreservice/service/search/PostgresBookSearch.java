@@ -0,0 +1,36 @@
+package com.neitex.bookstoreservice.service.search;
+
+import com.neitex.bookstoreservice.repository.BookRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Search with PostgreSQL full-text search, served by a GIN expression index that is created at
+ * startup if missing, since the schema itself is generated by Hibernate.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "books.search.engine", havingValue = "postgres",
+    matchIfMissing = true)
+public class PostgresBookSearch implements BookSearch {
+
+  private final BookRepository bookRepository;
+  private final JdbcTemplate jdbcTemplate;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createIndex() {
+    jdbcTemplate.execute("create index if not exists books_search_idx on books using gin (("
+        + BookRepository.SEARCH_DOCUMENT + "))");
+  }
+
+  @Override
+  public Slice<Long> search(String query, Pageable pageable) {
+    return bookRepository.searchIds(query, pageable);
+  }
+}
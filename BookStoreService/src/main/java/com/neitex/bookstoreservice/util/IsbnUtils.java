@@ -0,0 +1,44 @@
+package com.neitex.bookstoreservice.util;
+
+import java.util.regex.Pattern;
+
+public class IsbnUtils {
+
+  private static final Pattern SEPARATORS = Pattern.compile("[\\s-]");
+  private static final Pattern ISBN_10 = Pattern.compile("\\d{9}[\\dXx]");
+
+  /**
+   * Canonical form of an ISBN: separators are removed and a valid ISBN-10 is converted to its
+   * ISBN-13 equivalent, so differently formatted spellings of the same book compare equal. Values
+   * that are not valid ISBN-10 are only stripped of separators.
+   */
+  public static String normalize(String isbn) {
+    if (isbn == null) {
+      return null;
+    }
+    String compact = SEPARATORS.matcher(isbn).replaceAll("");
+    if (ISBN_10.matcher(compact).matches() && isValidIsbn10(compact)) {
+      return toIsbn13(compact);
+    }
+    return compact;
+  }
+
+  private static boolean isValidIsbn10(String isbn) {
+    int sum = 0;
+    for (int i = 0; i < 10; i++) {
+      char c = isbn.charAt(i);
+      int digit = (c == 'X' || c == 'x') ? 10 : c - '0';
+      sum += (10 - i) * digit;
+    }
+    return sum % 11 == 0;
+  }
+
+  private static String toIsbn13(String isbn10) {
+    String body = "978" + isbn10.substring(0, 9);
+    int sum = 0;
+    for (int i = 0; i < body.length(); i++) {
+      sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+    }
+    return body + (10 - sum % 10) % 10;
+  }
+}
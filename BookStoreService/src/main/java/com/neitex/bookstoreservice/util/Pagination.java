@@ -0,0 +1,62 @@
+package com.neitex.bookstoreservice.util;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Keyset pagination by ID: a page holds entities with ID greater than the cursor, and the ID of
+ * the last one is returned in {@link #NEXT_CURSOR_HEADER} if there are more. Results that are not
+ * ordered by ID, such as ranked search results, are paged by number instead and announce the next
+ * page in {@link #NEXT_PAGE_HEADER}.
+ */
+public class Pagination {
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  public static final String NEXT_PAGE_HEADER = "X-Next-Page";
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+
+  /**
+   * @param size requested page size, clamped to {@code [1, MAX_PAGE_SIZE]}
+   */
+  public static Pageable firstPage(Integer size) {
+    return page(0, size);
+  }
+
+  /**
+   * @param page zero-based page number, negative values are treated as 0
+   * @param size requested page size, clamped to {@code [1, MAX_PAGE_SIZE]}
+   */
+  public static Pageable page(Integer page, Integer size) {
+    int limited = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    return PageRequest.of(page == null ? 0 : Math.max(0, page), limited);
+  }
+
+  public static <T> ResponseEntity<List<T>> toResponse(Slice<T> slice, Function<T, Long> id) {
+    return withCursor(slice, id).body(slice.getContent());
+  }
+
+  /**
+   * For responses that wrap the page in another object.
+   */
+  public static <T> ResponseEntity.BodyBuilder withCursor(Slice<T> slice, Function<T, Long> id) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (slice.hasNext() && slice.hasContent()) {
+      List<T> content = slice.getContent();
+      response.header(NEXT_CURSOR_HEADER, id.apply(content.get(content.size() - 1)).toString());
+    }
+    return response;
+  }
+
+  public static <T> ResponseEntity<List<T>> toPageResponse(Slice<T> slice) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (slice.hasNext()) {
+      response.header(NEXT_PAGE_HEADER, String.valueOf(slice.getNumber() + 1));
+    }
+    return response.body(slice.getContent());
+  }
+}
@@ -1,8 +1,18 @@
 package com.neitex.bookstoreservice;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,11 +23,24 @@ import com.neitex.bookstoreservice.dto.AuthorRequestDTO;
 import com.neitex.bookstoreservice.dto.AuthorResponseDTO;
 import com.neitex.bookstoreservice.dto.BookRequestDTO;
 import com.neitex.bookstoreservice.dto.BookResponseDTO;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
+import com.neitex.bookstoreservice.entity.OutboxEvent;
 import com.neitex.bookstoreservice.exception.BookDoesNotExist;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
 import com.neitex.bookstoreservice.service.AuthorService;
 import com.neitex.bookstoreservice.service.BookService;
+import com.neitex.bookstoreservice.service.OutboxRelay;
+import com.neitex.bookstoreservice.util.Pagination;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.StreamSupport;
 import org.apache.commons.lang.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,15 +48,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
-@TestPropertySource(locations = "classpath:application.properties")
+// the service configuration first, so that test settings override it
+@TestPropertySource(locations = {"file:../configuration/bookstore.properties",
+    "classpath:application.properties"})
 @SpringBootTest(classes = BookStoreServiceApplication.class)
 @ActiveProfiles("test")
 @Import(WireMockConfig.class)
@@ -55,12 +82,24 @@ public class BookStoreIntegrationTest {
   @Autowired
   private BookService bookService;
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private OutboxRelay outboxRelay;
+
+  @Autowired
+  private OutboxEventRepository outboxEventRepository;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
   private AuthorResponseDTO author;
 
   @BeforeEach
   void setUp() throws IOException {
     wireMockServer.stubFor(
-        WireMock.post(WireMock.urlEqualTo("/internal-books-lease/updates"))
+        WireMock.post(WireMock.urlEqualTo("/internal-books-lease/updates/batch"))
             .willReturn(WireMock.aResponse()
                 .withStatus(HttpStatus.OK.value())
                 .withHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
@@ -136,6 +175,304 @@ public class BookStoreIntegrationTest {
         .andExpect(jsonPath("$").isArray());
   }
 
+  @Test
+  @WithMockUser(roles = {"EDITOR", "VIEWER"})
+  public void testGetBooksPagesByCursor() throws Exception {
+    AuthorResponseDTO author = createAuthor();
+    for (int i = 0; i < 3; i++) {
+      BookRequestDTO requestDTO = new BookRequestDTO();
+      requestDTO.setTitle("Paged Book " + i);
+      requestDTO.setIsbn("pagedBook" + i);
+      requestDTO.setAuthorId(author.getId());
+      bookService.createBook(requestDTO);
+    }
+    String cursor = mockMvc.perform(
+            MockMvcRequestBuilders.get("/books/by-author/{authorId}", author.getId())
+                .param("size", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", equalTo(2)))
+        .andExpect(header().exists(Pagination.NEXT_CURSOR_HEADER))
+        .andReturn().getResponse().getHeader(Pagination.NEXT_CURSOR_HEADER);
+    mockMvc.perform(MockMvcRequestBuilders.get("/books/by-author/{authorId}", author.getId())
+            .param("size", "2").param("after", cursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", equalTo(1)))
+        .andExpect(jsonPath("$[0].title", equalTo("Paged Book 2")))
+        .andExpect(header().doesNotExist(Pagination.NEXT_CURSOR_HEADER));
+  }
+
+  @Test
+  @WithMockUser(roles = "VIEWER")
+  public void testExportBooks() throws Exception {
+    AuthorResponseDTO author = createAuthor();
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Exported Book");
+    requestDTO.setIsbn("exportBooks");
+    requestDTO.setAuthorId(author.getId());
+    bookService.createBook(requestDTO);
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/books/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    String body = mockMvc.perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andReturn().getResponse().getContentAsString();
+    assertTrue(Arrays.stream(body.split("\n"))
+        .anyMatch(line -> line.contains("\"isbn\":\"exportBooks\"")));
+  }
+
+  @Test
+  @WithMockUser(roles = {"VIEWER"})
+  public void testSearchBooks() throws Exception {
+    AuthorResponseDTO author = createAuthor();
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Quixotic Voyages");
+    requestDTO.setIsbn("searchBooksA");
+    requestDTO.setDescription("A zephyr carries the ship");
+    requestDTO.setAuthorId(author.getId());
+    BookResponseDTO described = bookService.createBook(requestDTO);
+    requestDTO.setTitle("Zephyr Quixotic");
+    requestDTO.setIsbn("searchBooksB");
+    requestDTO.setDescription(null);
+    BookResponseDTO titled = bookService.createBook(requestDTO);
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/books/search")
+            .param("q", "zephyr quixotic")
+            .param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(Pagination.NEXT_PAGE_HEADER, "1"))
+        .andExpect(jsonPath("$[0].id", equalTo(titled.getId().intValue())));
+    mockMvc.perform(MockMvcRequestBuilders.get("/books/search")
+            .param("q", "zephyr quixotic")
+            .param("page", "1")
+            .param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(Pagination.NEXT_PAGE_HEADER))
+        .andExpect(jsonPath("$[0].id", equalTo(described.getId().intValue())));
+  }
+
+  @Test
+  @WithMockUser(roles = {"VIEWER"})
+  public void testAutocomplete() throws Exception {
+    AuthorRequestDTO authorRequestDTO = new AuthorRequestDTO();
+    authorRequestDTO.setName("Ursula Autocompleted");
+    AuthorResponseDTO author = authorService.createAuthor(authorRequestDTO);
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Autocompleted Wizard");
+    requestDTO.setIsbn("autocomplete");
+    requestDTO.setAuthorId(author.getId());
+    BookResponseDTO book = bookService.createBook(requestDTO);
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/autocomplete").param("q", "autocomp"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", equalTo(2)))
+        .andExpect(jsonPath("$[0].type", equalTo("AUTHOR")))
+        .andExpect(jsonPath("$[0].text", equalTo("Ursula Autocompleted")))
+        .andExpect(jsonPath("$[1].type", equalTo("BOOK")))
+        .andExpect(jsonPath("$[1].id", equalTo(book.getId().intValue())));
+  }
+
+  @Test
+  @WithMockUser(roles = {"VIEWER"})
+  public void testFilterBooks() throws Exception {
+    AuthorResponseDTO first = createAuthor();
+    AuthorResponseDTO second = createAuthor();
+    createBook("filterBooksA", "Facet Saga", first.getId(), "FacetFantasy");
+    createBook("filterBooksB", "Facet Saga II", first.getId(), "FacetHorror");
+    createBook("filterBooksC", "Facet Saga III", second.getId(), "FacetFantasy");
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/books/filter")
+            .param("genre", "FacetFantasy")
+            .param("authorId", first.getId().toString())
+            .param("q", "facet saga"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.books.length()", equalTo(1)))
+        .andExpect(jsonPath("$.books[0].isbn", equalTo("filterBooksA")))
+        // genres of the first author's sagas, authors of fantasy sagas
+        .andExpect(jsonPath("$.genres.length()", equalTo(2)))
+        .andExpect(jsonPath("$.genres[?(@.genre == 'FacetHorror')].count", contains(1)))
+        .andExpect(jsonPath("$.authors.length()", equalTo(2)))
+        .andExpect(jsonPath("$.authors[?(@.id == " + second.getId() + ")].count",
+            contains(1)));
+  }
+
+  private void createBook(String isbn, String title, Long authorId, String genre) {
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setIsbn(isbn);
+    requestDTO.setTitle(title);
+    requestDTO.setAuthorId(authorId);
+    requestDTO.setGenre(genre);
+    bookService.createBook(requestDTO);
+  }
+
+  @Test
+  @WithMockUser(roles = {"EDITOR"})
+  public void testImportBooks() throws Exception {
+    AuthorResponseDTO author = createAuthor();
+    String body = String.join("\n",
+        "{\"isbn\": \"importBooksA\", \"title\": \"A\", \"authorId\": " + author.getId() + "}",
+        "{\"isbn\": \"importBooksB\", \"title\": \"B\", \"authorName\": \"Imported Author\"}",
+        "{\"isbn\": \"importBooksA\", \"title\": \"A again\", \"authorId\": "
+            + author.getId() + "}",
+        "{\"isbn\": \"importBooksC\", \"title\": \"C\", \"authorId\": -1}");
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/books/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created", equalTo(2)))
+        .andExpect(jsonPath("$.failed", equalTo(2)))
+        .andExpect(jsonPath("$.rows[2].error",
+            equalTo("Book with ISBN importBooksA appears earlier in the import")))
+        .andExpect(jsonPath("$.rows[3].error", equalTo("Author with ID -1 does not exist")));
+
+    assertEquals("Imported Author",
+        bookService.findBookByIsbn("importBooksB").getAuthor().getName());
+  }
+
+  @Test
+  @WithMockUser(roles = {"EDITOR"})
+  public void testImportBooksReportsRowsViolatingColumnLimits() throws Exception {
+    AuthorResponseDTO author = createAuthor();
+    String body = String.join("\n",
+        "{\"isbn\": \"importLongTitle\", \"title\": \"" + "T".repeat(300)
+            + "\", \"authorId\": " + author.getId() + "}",
+        "{\"isbn\": \"importShortTitle\", \"title\": \"T\", \"authorId\": "
+            + author.getId() + "}");
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/books/bulk")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .content(body))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created", equalTo(1)))
+        .andExpect(jsonPath("$.rows[0].error",
+            startsWith("Row violates a database constraint: ")))
+        .andExpect(jsonPath("$.rows[1].id", notNullValue()));
+
+    assertFalse(bookService.bookExistsByIsbn("importLongTitle"));
+  }
+
+  @Test
+  public void testBookUpdatesAreRelayedToLibraryThroughOutbox() {
+    AuthorResponseDTO author = createAuthor();
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Outbox Book");
+    requestDTO.setIsbn("outboxBook");
+    requestDTO.setAuthorId(author.getId());
+    requestDTO.setGenre("Genre");
+    BookResponseDTO book = bookService.createBook(requestDTO);
+    assertTrue(hasOutboxEvent(book.getId()));
+    wireMockServer.verify(0,
+        WireMock.postRequestedFor(WireMock.urlEqualTo("/internal-books-lease/updates/batch")));
+
+    outboxRelay.relay();
+
+    assertFalse(hasOutboxEvent(book.getId()));
+    wireMockServer.verify(WireMock.postRequestedFor(
+            WireMock.urlEqualTo("/internal-books-lease/updates/batch"))
+        .withRequestBody(WireMock.containing("\"bookId\":" + book.getId())));
+  }
+
+  @Test
+  public void testOutboxRelaySendsCurrentBookStateRegardlessOfEventOrder() {
+    AuthorResponseDTO author = createAuthor();
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Reordered Outbox Book");
+    requestDTO.setIsbn("reorderedOutboxBook");
+    requestDTO.setAuthorId(author.getId());
+    BookResponseDTO book = bookService.createBook(requestDTO);
+    // e.g. written by another instance with an ID from a later sequence block
+    outboxEventRepository.save(new OutboxEvent(book.getId(), BookUpdateType.DELETED));
+
+    outboxRelay.relay();
+
+    assertFalse(hasOutboxEvent(book.getId()));
+    wireMockServer.verify(WireMock.postRequestedFor(
+            WireMock.urlEqualTo("/internal-books-lease/updates/batch"))
+        .withRequestBody(WireMock.containing(
+            "{\"bookId\":" + book.getId() + ",\"updateType\":\"CREATED\"}")));
+    wireMockServer.verify(0, WireMock.postRequestedFor(
+            WireMock.urlEqualTo("/internal-books-lease/updates/batch"))
+        .withRequestBody(WireMock.containing(
+            "{\"bookId\":" + book.getId() + ",\"updateType\":\"DELETED\"}")));
+  }
+
+  private boolean hasOutboxEvent(Long bookId) {
+    return StreamSupport.stream(outboxEventRepository.findAll().spliterator(), false)
+        .anyMatch(event -> event.getBookId().equals(bookId));
+  }
+
+  @Test
+  public void testListingBooksCostsConstantNumberOfStatements() {
+    for (int i = 0; i < 3; i++) {
+      AuthorResponseDTO author = createAuthor();
+      BookRequestDTO requestDTO = new BookRequestDTO();
+      requestDTO.setTitle("Counted Book " + i);
+      requestDTO.setIsbn("countedBook" + i);
+      requestDTO.setAuthorId(author.getId());
+      bookService.createBook(requestDTO);
+    }
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    Slice<BookResponseDTO> books = bookService.getBooks(0L, 50);
+
+    assertTrue(books.getNumberOfElements() >= 3);
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  public void testRepeatedLookupsAreServedFromSecondLevelCache() {
+    AuthorResponseDTO author = createAuthor();
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Cached Book");
+    requestDTO.setIsbn("cachedBook");
+    requestDTO.setAuthorId(author.getId());
+    bookService.createBook(requestDTO);
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    authorService.findAuthorById(author.getId());
+    authorService.findAuthorById(author.getId());
+    bookService.findBookByIsbn("cachedBook");
+
+    assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+  }
+
+  @Test
+  public void testRepeatedIsbnLookupsVerifyIsbnWithOneStatement() {
+    AuthorResponseDTO author = createAuthor();
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Indexed Book");
+    requestDTO.setIsbn("978-1-4028-9462-6");
+    requestDTO.setAuthorId(author.getId());
+    bookService.createBook(requestDTO);
+    bookService.findBookByIsbn("9781402894626");
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    // IsbnIndex resolves the ID and checks its ISBN in the database, the book and its author
+    // come from the second-level cache
+    assertEquals("Indexed Book", bookService.findBookByIsbn("9781402894626").getTitle());
+    assertEquals("Indexed Book", bookService.findBookByIsbn("1-4028-9462-7").getTitle());
+
+    assertEquals(2, statistics.getPrepareStatementCount());
+    assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+  }
+
+  @Test
+  public void testCacheHitsArePublishedAsMetrics() {
+    AuthorResponseDTO author = createAuthor();
+
+    authorService.findAuthorById(author.getId());
+    authorService.findAuthorById(author.getId());
+
+    Collection<FunctionCounter> hits = meterRegistry.find("hibernate.second.level.cache.requests")
+        .tag("result", "hit").functionCounters();
+    assertFalse(hits.isEmpty());
+    assertTrue(hits.stream().mapToDouble(FunctionCounter::count).sum() > 0);
+  }
+
   private AuthorResponseDTO createAuthor() {
     AuthorRequestDTO requestDTO = new AuthorRequestDTO();
     requestDTO.setName(RandomStringUtils.randomAlphanumeric(16));
@@ -183,6 +520,21 @@ public class BookStoreIntegrationTest {
         .andExpect(jsonPath("$.genre", equalTo("Test Genre")));
   }
 
+  @Test
+  @WithMockUser(roles = {"EDITOR", "VIEWER"})
+  public void testGetBookByDifferentlyFormattedIsbn() throws Exception {
+    AuthorResponseDTO author = createAuthor();
+    BookRequestDTO requestDTO = new BookRequestDTO();
+    requestDTO.setTitle("Formatted Book");
+    requestDTO.setIsbn("978-0-306-40615-7");
+    requestDTO.setAuthorId(author.getId());
+    bookService.createBook(requestDTO);
+    mockMvc.perform(MockMvcRequestBuilders.get("/books/by-isbn/{isbn}", "0-306-40615-2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title", equalTo("Formatted Book")))
+        .andExpect(jsonPath("$.isbn", equalTo("9780306406157")));
+  }
+
   @Test
   @WithMockUser(roles = {"EDITOR", "VIEWER"})
   public void testGetBooksByAuthor() throws Exception {
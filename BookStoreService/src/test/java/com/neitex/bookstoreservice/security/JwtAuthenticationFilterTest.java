@@ -12,6 +12,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -43,7 +44,7 @@ class JwtAuthenticationFilterTest {
 
     // SecurityContextHolder should remain untouched, no authentication should be performed
     verify(filterChain, times(1)).doFilter(request, response);
-    verify(jwtService, times(0)).getUserDetails(any());
+    verify(jwtService, times(0)).getAuthentication(any());
   }
 
   @Test
@@ -55,7 +56,7 @@ class JwtAuthenticationFilterTest {
 
     // SecurityContextHolder should remain untouched, no authentication should be performed
     verify(filterChain, times(1)).doFilter(request, response);
-    verify(jwtService, times(0)).getUserDetails(any());
+    verify(jwtService, times(0)).getAuthentication(any());
   }
 
   @Test
@@ -72,7 +73,7 @@ class JwtAuthenticationFilterTest {
     jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
     // JwtService should not be called because the user is already authenticated
-    verify(jwtService, times(0)).getUserDetails(any());
+    verify(jwtService, times(0)).getAuthentication(any());
     verify(filterChain, times(1)).doFilter(request, response);
   }
 
@@ -86,12 +87,13 @@ class JwtAuthenticationFilterTest {
     SecurityContextHolder.getContext().setAuthentication(null);
 
     GlobalUserDetails userDetails = mock(GlobalUserDetails.class);
-    when(jwtService.getUserDetails("valid-jwt-token")).thenReturn(userDetails);
+    when(jwtService.getAuthentication("valid-jwt-token")).thenReturn(
+        new UsernamePasswordAuthenticationToken(userDetails, null, List.of()));
 
     jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-    // Verify that JwtService was called to get user details and user is authenticated
-    verify(jwtService, times(1)).getUserDetails("valid-jwt-token");
+    // Verify that JwtService was called to authenticate the user
+    verify(jwtService, times(1)).getAuthentication("valid-jwt-token");
 
     // SecurityContext should have the authenticated user now
     assert SecurityContextHolder.getContext().getAuthentication() != null;
@@ -15,17 +15,19 @@ import com.neitex.bookstoreservice.exception.AuthorAlreadyExistsException;
 import com.neitex.bookstoreservice.exception.AuthorDoesNotExist;
 import com.neitex.bookstoreservice.exception.AuthorHasBooksException;
 import com.neitex.bookstoreservice.repository.AuthorRepository;
+import com.neitex.bookstoreservice.util.Pagination;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 class AuthorServiceTest {
 
   private AuthorRepository authorRepository;
-  private ModelMapper modelMapper;
   private AuthorService authorService;
   private BookService bookService;
 
@@ -33,8 +35,8 @@ class AuthorServiceTest {
   void setUp() {
     authorRepository = mock(AuthorRepository.class);
     bookService = mock(BookService.class);
-    modelMapper = new ModelMapper();
-    authorService = new AuthorService(authorRepository, bookService, modelMapper);
+    authorService = new AuthorService(authorRepository, bookService,
+        mock(ApplicationEventPublisher.class));
   }
 
   @Test
@@ -42,10 +44,12 @@ class AuthorServiceTest {
     Author author = new Author();
     author.setId(1L);
     author.setName("Author Name");
-    when(authorRepository.findAll()).thenReturn(Collections.singletonList(author));
-    AuthorResponseDTO authorResponseDTO = modelMapper.map(author, AuthorResponseDTO.class);
+    when(authorRepository.findByIdGreaterThanOrderById(0L,
+        PageRequest.of(0, Pagination.MAX_PAGE_SIZE))).thenReturn(
+        new SliceImpl<>(Collections.singletonList(author)));
+    AuthorResponseDTO authorResponseDTO = AuthorResponseDTO.from(author);
 
-    List<AuthorResponseDTO> result = authorService.getAuthors();
+    List<AuthorResponseDTO> result = authorService.getAuthors(0L, 100000).getContent();
 
     assertEquals(1, result.size());
     assertEquals(authorResponseDTO, result.get(0));
@@ -77,7 +81,7 @@ class AuthorServiceTest {
     author.setName("New Author");
     when(authorRepository.existsByName("New Author")).thenReturn(false);
     when(authorRepository.save(any(Author.class))).thenReturn(author);
-    AuthorResponseDTO authorResponseDTO = modelMapper.map(author, AuthorResponseDTO.class);
+    AuthorResponseDTO authorResponseDTO = AuthorResponseDTO.from(author);
 
     AuthorResponseDTO result = authorService.createAuthor(authorRequestDTO);
 
@@ -135,7 +139,7 @@ class AuthorServiceTest {
     Author author = new Author();
     author.setId(1L);
     when(authorRepository.findById(1L)).thenReturn(Optional.of(author));
-    AuthorResponseDTO authorResponseDTO = modelMapper.map(author, AuthorResponseDTO.class);
+    AuthorResponseDTO authorResponseDTO = AuthorResponseDTO.from(author);
 
     AuthorResponseDTO result = authorService.findAuthorById(1L);
 
@@ -0,0 +1,58 @@
+package com.neitex.bookstoreservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.neitex.bookstoreservice.dto.SuggestionDTO;
+import com.neitex.bookstoreservice.dto.SuggestionDTO.SuggestionType;
+import com.neitex.bookstoreservice.event.AuthorChangedEvent;
+import com.neitex.bookstoreservice.repository.AuthorRepository;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AutocompleteIndexTest {
+
+  private AutocompleteIndex autocompleteIndex;
+
+  @BeforeEach
+  void setUp() {
+    autocompleteIndex = new AutocompleteIndex(mock(BookService.class),
+        mock(BookRepository.class), mock(AuthorRepository.class));
+    autocompleteIndex.put(SuggestionType.BOOK, 1L, "Dune");
+    autocompleteIndex.put(SuggestionType.BOOK, 2L, "Dune Messiah");
+    autocompleteIndex.put(SuggestionType.AUTHOR, 1L, "Frank Herbert");
+  }
+
+  @Test
+  void suggestMatchesPrefixOfAnyWord() {
+    assertEquals(List.of(new SuggestionDTO(SuggestionType.BOOK, 1L, "Dune"),
+            new SuggestionDTO(SuggestionType.BOOK, 2L, "Dune Messiah")),
+        autocompleteIndex.suggest("DU", 10));
+    assertEquals(List.of(new SuggestionDTO(SuggestionType.BOOK, 2L, "Dune Messiah")),
+        autocompleteIndex.suggest("mess", 10));
+    assertEquals(List.of(new SuggestionDTO(SuggestionType.AUTHOR, 1L, "Frank Herbert")),
+        autocompleteIndex.suggest("herb", 10));
+  }
+
+  @Test
+  void suggestReturnsAtMostLimit() {
+    assertEquals(1, autocompleteIndex.suggest("dune", 1).size());
+    assertTrue(autocompleteIndex.suggest(" ", 10).isEmpty());
+  }
+
+  @Test
+  void changedAuthorsAreReindexed() {
+    autocompleteIndex.onAuthorChanged(new AuthorChangedEvent(1L, "Brian Herbert"));
+
+    assertTrue(autocompleteIndex.suggest("frank", 10).isEmpty());
+    assertEquals(List.of(new SuggestionDTO(SuggestionType.AUTHOR, 1L, "Brian Herbert")),
+        autocompleteIndex.suggest("herbert", 10));
+
+    autocompleteIndex.onAuthorChanged(new AuthorChangedEvent(1L, null));
+
+    assertTrue(autocompleteIndex.suggest("herbert", 10).isEmpty());
+  }
+}
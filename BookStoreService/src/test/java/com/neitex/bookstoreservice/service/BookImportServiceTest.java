@@ -0,0 +1,192 @@
+package com.neitex.bookstoreservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neitex.bookstoreservice.dto.BookImportDTO;
+import com.neitex.bookstoreservice.dto.BookImportResponseDTO;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
+import com.neitex.bookstoreservice.entity.Author;
+import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.entity.OutboxEvent;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
+import com.neitex.bookstoreservice.repository.AuthorRepository;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class BookImportServiceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private BookRepository bookRepository;
+  private AuthorRepository authorRepository;
+  private OutboxEventRepository outboxEventRepository;
+  private IsbnIndex isbnIndex;
+  private BookImportService bookImportService;
+
+  @BeforeEach
+  void setUp() {
+    bookRepository = mock(BookRepository.class);
+    authorRepository = mock(AuthorRepository.class);
+    outboxEventRepository = mock(OutboxEventRepository.class);
+    isbnIndex = new IsbnIndex(bookRepository, 100L, 60000L);
+    bookImportService = new BookImportService(bookRepository, authorRepository,
+        outboxEventRepository, isbnIndex,
+        mock(ApplicationEventPublisher.class), mock(PlatformTransactionManager.class), 2);
+    // IDs are assigned on save, as the pooled sequence would
+    when(bookRepository.saveAll(any())).thenAnswer(invocation -> {
+      long id = 100;
+      for (Book book : invocation.<Iterable<Book>>getArgument(0)) {
+        book.setId(id++);
+      }
+      return invocation.getArgument(0);
+    });
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importBooksReportsEveryRowAndQueuesLibraryUpdatesOncePerChunk() throws IOException {
+    ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+    Author existing = new Author();
+    existing.setId(1L);
+    existing.setName("Existing");
+    when(authorRepository.findAllById(Set.of(1L))).thenReturn(List.of(existing));
+    when(bookRepository.findExistingIsbns(Set.of("a", "b"))).thenReturn(List.of("b"));
+
+    BookImportResponseDTO result = bookImportService.importBooks(rows("""
+        {"isbn": "a", "title": "A", "authorId": 1}
+        {"isbn": "b", "title": "B", "authorId": 1}
+        {"isbn": "c", "title": "C", "authorId": 2}
+        {"isbn": "c", "title": "C again", "authorName": "New"}
+        {"isbn": "d"}
+        """));
+
+    assertEquals(1, result.getCreated());
+    assertEquals(4, result.getFailed());
+    assertEquals(100L, result.getRows().get(0).getId());
+    assertEquals("Book with ISBN b already exists", result.getRows().get(1).getError());
+    assertEquals("Author with ID 2 does not exist", result.getRows().get(2).getError());
+    assertEquals("Book with ISBN c appears earlier in the import",
+        result.getRows().get(3).getError());
+    assertNull(result.getRows().get(4).getId());
+    verify(outboxEventRepository).saveAll(events.capture());
+    assertEquals(1, events.getValue().size());
+    assertEquals(100L, events.getValue().get(0).getBookId());
+    assertEquals(BookUpdateType.CREATED, events.getValue().get(0).getUpdateType());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importBooksCreatesNamedAuthorsOnce() throws IOException {
+    ArgumentCaptor<List<Author>> authors = ArgumentCaptor.forClass(List.class);
+
+    BookImportResponseDTO result = bookImportService.importBooks(rows("""
+        [{"isbn": "a", "title": "A", "authorName": "New"},
+         {"isbn": "b", "title": "B", "authorName": "New"}]
+        """));
+
+    assertEquals(2, result.getCreated());
+    verify(authorRepository).saveAll(authors.capture());
+    assertEquals(1, authors.getValue().size());
+  }
+
+  @Test
+  void importBooksDetectsExistingIsbnsInAnyFormatting() throws IOException {
+    Book existing = new Book();
+    existing.setId(1L);
+    existing.setIsbn("0-306-40615-2");
+    when(bookRepository.findAllById(Set.of(1L))).thenReturn(List.of(existing));
+    isbnIndex.onBookChanged(new BookChangedEvent(1L, null, existing.getIsbn()));
+
+    BookImportResponseDTO result = bookImportService.importBooks(rows("""
+        {"isbn": "978-0-306-40615-7", "title": "A", "authorName": "New"}
+        """));
+
+    assertEquals(0, result.getCreated());
+    assertEquals("Book with ISBN 978-0-306-40615-7 already exists",
+        result.getRows().get(0).getError());
+  }
+
+  @Test
+  void importBooksRetriesChunkRowByRowWhenIsbnIsTakenConcurrently() throws IOException {
+    doAnswer(invocation -> {
+      long id = 100;
+      for (Book book : invocation.<Iterable<Book>>getArgument(0)) {
+        if (book.getIsbn().equals("b")) {
+          throw new DataIntegrityViolationException("duplicate key value");
+        }
+        book.setId(id++);
+      }
+      return invocation.getArgument(0);
+    }).when(bookRepository).saveAll(any());
+    // b is created by someone else between the check before the insert and the insert itself
+    when(bookRepository.findExistingIsbns(Set.of("b"))).thenReturn(List.of(), List.of("b"));
+
+    BookImportResponseDTO result = bookImportService.importBooks(rows("""
+        {"isbn": "a", "title": "A", "authorName": "New"}
+        {"isbn": "b", "title": "B", "authorName": "New"}
+        {"isbn": "c", "title": "C", "authorName": "New"}
+        """));
+
+    assertEquals(2, result.getCreated());
+    assertEquals(100L, result.getRows().get(0).getId());
+    assertEquals(1, result.getRows().get(1).getRow());
+    assertEquals("Book with ISBN b already exists", result.getRows().get(1).getError());
+    assertEquals(2, result.getRows().get(2).getRow());
+    assertEquals(100L, result.getRows().get(2).getId());
+  }
+
+  @Test
+  void importBooksReportsOtherConstraintViolationsOfRetriedRows() throws IOException {
+    doThrow(new DataIntegrityViolationException("could not execute batch",
+        new IllegalStateException("value too long"))).when(bookRepository).saveAll(any());
+
+    BookImportResponseDTO result = bookImportService.importBooks(rows("""
+        {"isbn": "a", "title": "A", "authorName": "New"}
+        """));
+
+    assertEquals(0, result.getCreated());
+    assertEquals("Row violates a database constraint: value too long",
+        result.getRows().get(0).getError());
+  }
+
+  @Test
+  void importBooksStopsAtUnreadableRow() throws IOException {
+    BookImportResponseDTO result = bookImportService.importBooks(rows("""
+        {"isbn": "a", "title": "A", "authorName": "New"}
+        {"isbn": 
+        """));
+
+    assertEquals(1, result.getCreated());
+    assertEquals(1, result.getFailed());
+    assertEquals(1, result.getRows().get(1).getRow());
+  }
+
+  @Test
+  void importBooksWithoutValidRowsQueuesNoLibraryUpdates() throws IOException {
+    bookImportService.importBooks(rows("{\"title\": \"No ISBN\"}"));
+
+    verify(outboxEventRepository, never()).saveAll(any());
+  }
+
+  private MappingIterator<BookImportDTO> rows(String body) throws IOException {
+    return objectMapper.readerFor(BookImportDTO.class).readValues(body);
+  }
+}
@@ -12,39 +12,53 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.neitex.bookstoreservice.client.LibraryClient;
+import com.neitex.bookstoreservice.dto.BookFilterResponseDTO;
+import com.neitex.bookstoreservice.dto.BookFilterResponseDTO.AuthorCount;
+import com.neitex.bookstoreservice.dto.BookFilterResponseDTO.GenreCount;
 import com.neitex.bookstoreservice.dto.BookRequestDTO;
 import com.neitex.bookstoreservice.dto.BookResponseDTO;
 import com.neitex.bookstoreservice.entity.Author;
 import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
 import com.neitex.bookstoreservice.exception.AuthorDoesNotExist;
 import com.neitex.bookstoreservice.exception.BookAlreadyExistsException;
 import com.neitex.bookstoreservice.exception.BookDoesNotExist;
 import com.neitex.bookstoreservice.exception.MissingFieldException;
 import com.neitex.bookstoreservice.repository.AuthorRepository;
 import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
+import com.neitex.bookstoreservice.util.Pagination;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 class BookServiceTest {
 
   private BookRepository bookRepository;
-  private ModelMapper modelMapper;
-  private LibraryClient libraryClient;
+  private OutboxEventRepository outboxEventRepository;
   private AuthorRepository authorRepository;
+  private EntityManager entityManager;
+  private ApplicationEventPublisher eventPublisher;
   private BookService bookService;
 
   @BeforeEach
   void setUp() {
     bookRepository = mock(BookRepository.class);
     authorRepository = mock(AuthorRepository.class);
-    libraryClient = mock(LibraryClient.class);
-    modelMapper = new ModelMapper();
-    bookService = new BookService(bookRepository, authorRepository, modelMapper, libraryClient);
+    outboxEventRepository = mock(OutboxEventRepository.class);
+    entityManager = mock(EntityManager.class);
+    eventPublisher = mock(ApplicationEventPublisher.class);
+    bookService = new BookService(bookRepository, authorRepository, outboxEventRepository,
+        entityManager, new IsbnIndex(bookRepository, 100L, 60000L), eventPublisher);
   }
 
   @Test
@@ -68,10 +82,12 @@ class BookServiceTest {
   @Test
   void findBookByISBNReturnsBookResponseDTO() {
     Book book = new Book();
+    book.setId(1L);
     book.setIsbn("1234567890");
     BookResponseDTO bookResponseDTO = new BookResponseDTO();
+    bookResponseDTO.setId(1L);
     bookResponseDTO.setIsbn("1234567890");
-    when(bookRepository.findBookByIsbn("1234567890")).thenReturn(Optional.of(book));
+    when(bookRepository.findByNaturalIsbn("1234567890")).thenReturn(Optional.of(book));
 
     BookResponseDTO result = bookService.findBookByIsbn("1234567890");
 
@@ -80,14 +96,17 @@ class BookServiceTest {
 
   @Test
   void findBookByISBN_throwsWhenBookNotFound() {
-    when(bookRepository.findBookByIsbn("1234567890")).thenReturn(Optional.empty());
+    when(bookRepository.findByNaturalIsbn("1234567890")).thenReturn(Optional.empty());
 
     assertThrows(BookDoesNotExist.class, () -> bookService.findBookByIsbn("1234567890"));
   }
 
   @Test
   void bookExistsByISBNReturnsTrueWhenBookExists() {
-    when(bookRepository.existsByIsbn("1234567890")).thenReturn(true);
+    Book book = new Book();
+    book.setId(1L);
+    book.setIsbn("1234567890");
+    when(bookRepository.findByNaturalIsbn("1234567890")).thenReturn(Optional.of(book));
 
     boolean result = bookService.bookExistsByIsbn("1234567890");
 
@@ -164,27 +183,30 @@ class BookServiceTest {
 
   @Test
   void deleteBookDeletesBookWhenExists() {
-    when(bookRepository.existsById(1L)).thenReturn(true);
+    Book book = new Book();
+    book.setId(1L);
+    book.setIsbn("1234567890");
+    when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
 
     bookService.deleteBook(1L);
 
     verify(bookRepository, times(1)).deleteById(1L);
-    verify(libraryClient, times(1)).updateBook(any());
+    verify(outboxEventRepository, times(1)).save(any());
+    verify(eventPublisher).publishEvent(new BookChangedEvent(1L, "1234567890", null));
   }
 
   @Test
   void deleteBookDoesNothingWhenBookDoesNotExist() {
-    when(bookRepository.existsById(1L)).thenReturn(false);
+    when(bookRepository.findById(1L)).thenReturn(Optional.empty());
 
     bookService.deleteBook(1L);
 
     verify(bookRepository, never()).deleteById(1L);
-    verify(libraryClient, never()).updateBook(any());
+    verify(outboxEventRepository, never()).save(any());
   }
 
   @Test
   void createBookSuccessfulWhenBookIsNew() {
-    when(bookRepository.existsByIsbn("1234567890")).thenReturn(false);
     Author a = new Author();
     a.setId(1L);
     a.setName("Name");
@@ -211,7 +233,6 @@ class BookServiceTest {
 
   @Test
   void createBookThrowsWhenAuthorDoesNotExist() {
-    when(bookRepository.existsByIsbn("1234567890")).thenReturn(false);
     when(authorRepository.findById(1L)).thenReturn(Optional.empty());
     BookRequestDTO bookRequestDTO = new BookRequestDTO();
     bookRequestDTO.setIsbn("1234567890");
@@ -224,7 +245,10 @@ class BookServiceTest {
 
   @Test
   void createBookThrowsWhenISBNIsTaken() {
-    when(bookRepository.existsByIsbn("1234567890")).thenReturn(true);
+    Book book = new Book();
+    book.setId(1L);
+    book.setIsbn("1234567890");
+    when(bookRepository.findByNaturalIsbn("1234567890")).thenReturn(Optional.of(book));
     BookRequestDTO bookRequestDTO = new BookRequestDTO();
     bookRequestDTO.setIsbn("1234567890");
     bookRequestDTO.setTitle("Title");
@@ -265,12 +289,15 @@ class BookServiceTest {
     bookC.setId(3L);
     bookC.setIsbn("3");
     bookC.setAuthor(author);
-    when(bookRepository.findAll()).thenReturn(List.of(bookA, bookB, bookC));
-    assertEquals(3, bookService.getBooks().size());
-    assertArrayEquals(List.of(modelMapper.map(bookA, BookResponseDTO.class),
-            modelMapper.map(bookB, BookResponseDTO.class),
-            modelMapper.map(bookC, BookResponseDTO.class)).toArray(),
-        bookService.getBooks().toArray());
+    when(bookRepository.findByIdGreaterThanOrderById(0L, PageRequest.of(0, 3))).thenReturn(
+        new SliceImpl<>(List.of(bookA, bookB, bookC), PageRequest.of(0, 3), true));
+    Slice<BookResponseDTO> result = bookService.getBooks(0L, 3);
+    assertEquals(3, result.getNumberOfElements());
+    assertTrue(result.hasNext());
+    assertArrayEquals(List.of(BookResponseDTO.from(bookA),
+            BookResponseDTO.from(bookB),
+            BookResponseDTO.from(bookC)).toArray(),
+        result.getContent().toArray());
   }
 
   @Test
@@ -290,18 +317,72 @@ class BookServiceTest {
     bookC.setId(3L);
     bookC.setIsbn("3");
     bookC.setAuthor(author);
-    when(bookRepository.findBooksByAuthorId(1L)).thenReturn(List.of(bookA, bookB, bookC));
+    when(bookRepository.findByAuthorIdAndIdGreaterThanOrderById(1L, 0L,
+        PageRequest.of(0, Pagination.DEFAULT_PAGE_SIZE))).thenReturn(
+        new SliceImpl<>(List.of(bookA, bookB, bookC)));
     when(authorRepository.existsById(1L)).thenReturn(true);
-    assertEquals(3, bookService.findBooksByAuthor(1L).size());
-    assertArrayEquals(List.of(modelMapper.map(bookA, BookResponseDTO.class),
-            modelMapper.map(bookB, BookResponseDTO.class),
-            modelMapper.map(bookC, BookResponseDTO.class)).toArray(),
-        bookService.findBooksByAuthor(1L).toArray());
+    Slice<BookResponseDTO> result = bookService.findBooksByAuthor(1L, 0L, null);
+    assertEquals(3, result.getNumberOfElements());
+    assertArrayEquals(List.of(BookResponseDTO.from(bookA),
+            BookResponseDTO.from(bookB),
+            BookResponseDTO.from(bookC)).toArray(),
+        result.getContent().toArray());
   }
 
   @Test
   void getBooksByAuthorThrowsIfAuthorDoesNotExist() {
     when(authorRepository.existsById(1L)).thenReturn(false);
-    assertThrows(AuthorDoesNotExist.class, () -> bookService.findBooksByAuthor(1L));
+    assertThrows(AuthorDoesNotExist.class, () -> bookService.findBooksByAuthor(1L, 0L, null));
+  }
+
+  @Test
+  void filterBooksEscapesTitleKeyword() {
+    when(bookRepository.filter("Genre", null, "%50\\%\\_off%", 0L,
+        PageRequest.of(0, Pagination.DEFAULT_PAGE_SIZE))).thenReturn(new SliceImpl<>(List.of()));
+
+    Slice<BookResponseDTO> result = bookService.filterBooks("Genre", null, " 50%_Off ", 0L, null);
+
+    assertTrue(result.isEmpty());
+  }
+
+  @Test
+  void withFacetsCountsEachFacetWithoutItsOwnCriterion() {
+    BookRepository.GenreCount genreCount = mock(BookRepository.GenreCount.class);
+    when(genreCount.getGenre()).thenReturn("Fiction");
+    when(genreCount.getBookCount()).thenReturn(2L);
+    BookRepository.AuthorCount authorCount = mock(BookRepository.AuthorCount.class);
+    when(authorCount.getId()).thenReturn(1L);
+    when(authorCount.getName()).thenReturn("Name");
+    when(authorCount.getBookCount()).thenReturn(3L);
+    when(bookRepository.countByGenre(1L, null, PageRequest.of(0, BookService.FACET_SIZE)))
+        .thenReturn(List.of(genreCount));
+    when(bookRepository.countByAuthor("Fiction", null, PageRequest.of(0, BookService.FACET_SIZE)))
+        .thenReturn(List.of(authorCount));
+
+    BookFilterResponseDTO result = bookService.withFacets(List.of(), "Fiction", 1L, null);
+
+    assertEquals(List.of(new GenreCount("Fiction", 2L)), result.getGenres());
+    assertEquals(List.of(new AuthorCount(1L, "Name", 3L)), result.getAuthors());
+  }
+
+  @Test
+  void forEachBookConvertsAndDetachesEveryBook() {
+    Author author = new Author();
+    author.setId(1L);
+    Book bookA = new Book();
+    bookA.setId(1L);
+    bookA.setAuthor(author);
+    Book bookB = new Book();
+    bookB.setId(2L);
+    bookB.setAuthor(author);
+    when(bookRepository.streamAll()).thenReturn(Stream.of(bookA, bookB));
+
+    List<BookResponseDTO> exported = new ArrayList<>();
+    bookService.forEachBook(exported::add);
+
+    assertEquals(List.of(BookResponseDTO.from(bookA),
+        BookResponseDTO.from(bookB)), exported);
+    verify(entityManager).detach(bookA);
+    verify(entityManager).detach(bookB);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.neitex.bookstoreservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.neitex.bookstoreservice.client.LibraryClient;
+import com.neitex.bookstoreservice.dto.BookUpdateRequestDTO.BookUpdateType;
+import com.neitex.bookstoreservice.dto.IdRangeDigestDTO;
+import com.neitex.bookstoreservice.entity.OutboxEvent;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.repository.OutboxEventRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CatalogueReconcilerTest {
+
+  private BookRepository bookRepository;
+  private OutboxEventRepository outboxEventRepository;
+  private LibraryClient libraryClient;
+  private CatalogueReconciler catalogueReconciler;
+  private List<Long> books;
+  private List<Long> leases;
+
+  @BeforeEach
+  void setUp() {
+    bookRepository = mock(BookRepository.class);
+    outboxEventRepository = mock(OutboxEventRepository.class);
+    libraryClient = mock(LibraryClient.class);
+    catalogueReconciler = new CatalogueReconciler(bookRepository, outboxEventRepository,
+        libraryClient, mock(PlatformTransactionManager.class), 4, 10);
+    books = new ArrayList<>(LongStream.rangeClosed(1, 100).boxed().toList());
+    leases = new ArrayList<>(books);
+    when(bookRepository.streamIdsBetween(anyLong(), anyLong())).thenAnswer(
+        invocation -> between(books, invocation.<Long>getArgument(0),
+            invocation.<Long>getArgument(1)).stream());
+    when(bookRepository.findIdsBetween(anyLong(), anyLong())).thenAnswer(
+        invocation -> between(books, invocation.<Long>getArgument(0),
+            invocation.<Long>getArgument(1)));
+    when(libraryClient.digestBookIds(any())).thenAnswer(
+        invocation -> digest(leases, invocation.getArgument(0)));
+    when(libraryClient.getBookIds(anyLong(), anyLong(), anyInt())).thenAnswer(
+        invocation -> between(leases, invocation.<Long>getArgument(0),
+            invocation.<Long>getArgument(1)));
+  }
+
+  @Test
+  void reconcileQueuesNothingWhenServicesAgree() {
+    assertEquals(0, catalogueReconciler.reconcile());
+
+    verify(libraryClient, never()).getBookIds(anyLong(), anyLong(), anyInt());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void reconcileQueuesUpdatesForDifferingRangesOnly() {
+    leases.remove(Long.valueOf(42));
+    leases.add(1000L);
+    ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+
+    assertEquals(2, catalogueReconciler.reconcile());
+
+    verify(outboxEventRepository, times(2)).saveAll(events.capture());
+    List<OutboxEvent> queued = events.getAllValues().stream().flatMap(List::stream).toList();
+    assertEquals(List.of(42L, 1000L), queued.stream().map(OutboxEvent::getBookId).toList());
+    assertEquals(List.of(BookUpdateType.CREATED, BookUpdateType.DELETED),
+        queued.stream().map(OutboxEvent::getUpdateType).toList());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void reconcileLeavesBooksWithPendingUpdatesAlone() {
+    leases.remove(Long.valueOf(42));
+    when(outboxEventRepository.findPendingBookIds(anyLong(), anyLong())).thenReturn(List.of(42L));
+    ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+
+    assertEquals(0, catalogueReconciler.reconcile());
+
+    verify(outboxEventRepository).saveAll(events.capture());
+    assertEquals(List.of(), events.getValue());
+  }
+
+  private static List<Long> between(List<Long> ids, long from, long to) {
+    return ids.stream().filter(id -> id >= from && id < to).sorted().toList();
+  }
+
+  private static List<IdRangeDigestDTO> digest(List<Long> ids, List<Long> bounds) {
+    List<IdRangeDigestDTO> digests = new ArrayList<>();
+    for (int i = 1; i < bounds.size(); i++) {
+      IdRangeDigestDTO digest = new IdRangeDigestDTO();
+      between(ids, bounds.get(i - 1), bounds.get(i)).forEach(digest::add);
+      digests.add(digest);
+    }
+    return digests;
+  }
+}
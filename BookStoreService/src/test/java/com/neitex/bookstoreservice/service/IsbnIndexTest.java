@@ -0,0 +1,89 @@
+package com.neitex.bookstoreservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.util.IsbnUtils;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IsbnIndexTest {
+
+  private BookRepository bookRepository;
+  private IsbnIndex isbnIndex;
+
+  @BeforeEach
+  void setUp() {
+    bookRepository = mock(BookRepository.class);
+    isbnIndex = new IsbnIndex(bookRepository, 100L, 60000L);
+  }
+
+  @Test
+  void normalizeConvertsIsbn10AndRemovesSeparators() {
+    assertEquals("9780306406157", IsbnUtils.normalize("0-306-40615-2"));
+    assertEquals("9780306406157", IsbnUtils.normalize("978-0-306-40615-7"));
+    assertEquals("9780306406157", IsbnUtils.normalize("978 0 306 40615 7"));
+    assertEquals("1234567890", IsbnUtils.normalize("1234567890"));
+  }
+
+  @Test
+  void repeatedMissesQueryDatabaseOnce() {
+    when(bookRepository.findByNaturalIsbn("9780306406157")).thenReturn(Optional.empty());
+
+    assertFalse(isbnIndex.exists("0-306-40615-2"));
+    assertFalse(isbnIndex.exists("9780306406157"));
+
+    verify(bookRepository, times(1)).findByNaturalIsbn("9780306406157");
+  }
+
+  @Test
+  void changedBookIsFoundWithoutNaturalIdLookup() {
+    when(bookRepository.findByNaturalIsbn("9780306406157")).thenReturn(Optional.empty());
+    assertFalse(isbnIndex.exists("9780306406157"));
+    Book book = new Book();
+    book.setId(1L);
+    book.setIsbn("9780306406157");
+    when(bookRepository.findIsbnById(1L)).thenReturn(Optional.of("9780306406157"));
+    when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+
+    isbnIndex.onBookChanged(new BookChangedEvent(1L, null, "9780306406157"));
+
+    assertTrue(isbnIndex.exists("0-306-40615-2"));
+    verify(bookRepository, times(1)).findByNaturalIsbn("9780306406157");
+  }
+
+  @Test
+  void staleEntryFallsBackToDatabase() {
+    when(bookRepository.findIsbnById(1L)).thenReturn(Optional.of("another"));
+    isbnIndex.onBookChanged(new BookChangedEvent(1L, null, "9780306406157"));
+
+    assertFalse(isbnIndex.exists("9780306406157"));
+
+    verify(bookRepository).findByNaturalIsbn("9780306406157");
+  }
+
+  @Test
+  void entryIsVerifiedAgainstDatabaseRatherThanCachedBook() {
+    Book cached = new Book();
+    cached.setId(1L);
+    cached.setIsbn("9780306406157");
+    // e.g. another instance changed the ISBN while the book is still in the local cache
+    when(bookRepository.findById(1L)).thenReturn(Optional.of(cached));
+    when(bookRepository.findIsbnById(1L)).thenReturn(Optional.of("9781402894626"));
+    isbnIndex.onBookChanged(new BookChangedEvent(1L, null, "9780306406157"));
+
+    assertFalse(isbnIndex.exists("9780306406157"));
+
+    verify(bookRepository, never()).findById(1L);
+  }
+}
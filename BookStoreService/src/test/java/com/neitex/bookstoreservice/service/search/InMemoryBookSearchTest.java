@@ -0,0 +1,74 @@
+package com.neitex.bookstoreservice.service.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.neitex.bookstoreservice.entity.Book;
+import com.neitex.bookstoreservice.event.BookChangedEvent;
+import com.neitex.bookstoreservice.repository.BookRepository;
+import com.neitex.bookstoreservice.service.BookService;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+class InMemoryBookSearchTest {
+
+  private BookRepository bookRepository;
+  private InMemoryBookSearch bookSearch;
+
+  @BeforeEach
+  void setUp() {
+    bookRepository = mock(BookRepository.class);
+    bookSearch = new InMemoryBookSearch(mock(BookService.class), bookRepository);
+    bookSearch.index(1L, "The Dark Forest", "Second book of the trilogy", "Science Fiction");
+    bookSearch.index(2L, "Forest Walks", "A guide to dark woods", "Travel");
+    bookSearch.index(3L, "Cooking", "Recipes", "Food");
+  }
+
+  @Test
+  void searchRanksTitleMatchesFirst() {
+    Slice<Long> result = bookSearch.search("dark forest", PageRequest.of(0, 10));
+
+    assertEquals(List.of(1L, 2L), result.getContent());
+    assertFalse(result.hasNext());
+  }
+
+  @Test
+  void searchRequiresEveryWord() {
+    assertTrue(bookSearch.search("dark recipes", PageRequest.of(0, 10)).isEmpty());
+    assertTrue(bookSearch.search("   ", PageRequest.of(0, 10)).isEmpty());
+  }
+
+  @Test
+  void searchPagesResults() {
+    Slice<Long> first = bookSearch.search("forest", PageRequest.of(0, 1));
+    Slice<Long> second = bookSearch.search("forest", PageRequest.of(1, 1));
+
+    assertEquals(List.of(1L), first.getContent());
+    assertTrue(first.hasNext());
+    assertEquals(List.of(2L), second.getContent());
+    assertFalse(second.hasNext());
+  }
+
+  @Test
+  void changedBooksAreReindexed() {
+    Book book = new Book();
+    book.setId(3L);
+    book.setIsbn("3");
+    book.setTitle("Forest Cooking");
+    when(bookRepository.findById(3L)).thenReturn(Optional.of(book));
+
+    bookSearch.onBookChanged(new BookChangedEvent(3L, "3", "3"));
+    bookSearch.onBookChanged(new BookChangedEvent(1L, "1", null));
+
+    assertEquals(List.of(2L, 3L),
+        bookSearch.search("forest", PageRequest.of(0, 10)).getContent());
+    assertTrue(bookSearch.search("recipes", PageRequest.of(0, 10)).isEmpty());
+  }
+}
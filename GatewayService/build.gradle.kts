@@ -30,6 +30,8 @@ dependencies {
 	implementation("org.springframework.cloud:spring-cloud-starter-gateway")
 	implementation("org.springframework.cloud:spring-cloud-starter-netflix-eureka-client")
 	implementation("org.springframework.cloud:spring-cloud-starter-openfeign")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("com.auth0:java-jwt:4.4.0")
 	compileOnly("org.projectlombok:lombok")
     implementation("org.springframework.boot:spring-boot-starter-actuator")
 	annotationProcessor("org.projectlombok:lombok")
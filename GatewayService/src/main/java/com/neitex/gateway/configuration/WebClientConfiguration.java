@@ -1,10 +1,18 @@
 package com.neitex.gateway.configuration;
 
+import io.netty.channel.ChannelOption;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 public class WebClientConfiguration {
@@ -17,7 +25,51 @@ public class WebClientConfiguration {
 
   @Bean
   @LoadBalanced
-  public WebClient.Builder lbWebClient() {
-    return WebClient.builder();
+  public WebClient.Builder lbWebClient(
+      @Qualifier("lbConnectionProvider") ConnectionProvider lbConnectionProvider,
+      @Value("${gateway.webclient.connect-timeout:2000}") Integer connectTimeout,
+      @Value("${gateway.webclient.response-timeout:5000}") Long responseTimeout,
+      @Value("${gateway.webclient.http2:false}") Boolean http2) {
+    HttpClient httpClient = HttpClient.create(lbConnectionProvider)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+        .option(ChannelOption.SO_KEEPALIVE, true)
+        .keepAlive(true)
+        .responseTimeout(Duration.ofMillis(responseTimeout));
+    if (http2) {
+      // internal services are plain HTTP, so HTTP/2 is negotiated via h2c upgrade
+      httpClient = httpClient.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+    }
+    return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+  }
+
+  /**
+   * Single client shared by everything that calls other services through the load balancer.
+   * Building a client per request repeats codec and filter setup on every call.
+   */
+  @Bean
+  public WebClient loadBalancedWebClient(@Qualifier("lbWebClient") WebClient.Builder lbWebClient) {
+    return lbWebClient.build();
+  }
+
+  /**
+   * Connection pool behind {@link #lbWebClient}. Pool usage and acquire wait time are published as
+   * {@code reactor.netty.connection.provider.*} metrics under the {@code lb-web-client} name.
+   */
+  @Bean(destroyMethod = "dispose")
+  public ConnectionProvider lbConnectionProvider(
+      @Value("${gateway.webclient.pool.max-connections:500}") Integer maxConnections,
+      @Value("${gateway.webclient.pool.pending-acquire-max-count:1000}") Integer maxPending,
+      @Value("${gateway.webclient.pool.pending-acquire-timeout:5000}") Long pendingAcquireTimeout,
+      @Value("${gateway.webclient.pool.max-idle-time:30000}") Long maxIdleTime,
+      @Value("${gateway.webclient.pool.max-life-time:300000}") Long maxLifeTime) {
+    return ConnectionProvider.builder("lb-web-client")
+        .maxConnections(maxConnections)
+        .pendingAcquireMaxCount(maxPending)
+        .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+        .maxIdleTime(Duration.ofMillis(maxIdleTime))
+        .maxLifeTime(Duration.ofMillis(maxLifeTime))
+        .evictInBackground(Duration.ofMillis(maxIdleTime))
+        .metrics(true)
+        .build();
   }
 }
@@ -0,0 +1,17 @@
+package com.neitex.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSecurityDTO {
+
+  private Long id;
+  private String login;
+  private String name;
+  private String role;
+  private String tokenSalt;
+}
@@ -1,23 +1,57 @@
 package com.neitex.gateway.security;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.neitex.gateway.dto.JWTTokenDTO;
+import java.time.Duration;
+import java.util.Optional;
 import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 @Component
 public class JwtFilter extends AbstractGatewayFilterFactory<JwtFilter.Config> {
 
-  private final WebClient.Builder webClientBuilder;
+  private final WebClient webClient;
 
-  public JwtFilter(@Qualifier("lbWebClient") WebClient.Builder webClientBuilder) {
+  /**
+   * Present when {@code jwt.validation.mode=local}; tokens are then verified at the gateway and
+   * UserService is only called for tokens the local snapshot can't decide on.
+   */
+  private final LocalTokenExchanger localTokenExchanger;
+
+  /**
+   * User-supplied token -> internal user-data token issued by UserService. Entries expire before
+   * the internal token does, so a cached token is still valid by the time it reaches a service.
+   * While a validation is in flight, its future is the cache entry, so concurrent requests with the
+   * same token wait for that single call instead of starting their own. Failed and rejected
+   * validations are dropped from the cache as soon as they complete.
+   */
+  private final AsyncCache<String, String> tokenCache;
+
+  public JwtFilter(@Qualifier("loadBalancedWebClient") WebClient webClient,
+      Optional<LocalTokenExchanger> localTokenExchanger,
+      @Value("${jwt.cache.ttl:60000}") Long cacheTtl,
+      @Value("${jwt.cache.max-size:10000}") Long cacheMaxSize,
+      @Value("${jwt.expiration.application:120000}") Long applicationTokenExpiration) {
     super(Config.class);
-    this.webClientBuilder = webClientBuilder;
+    if (cacheTtl >= applicationTokenExpiration) {
+      throw new IllegalArgumentException(String.format(
+          "Token cache TTL (%s ms) must be shorter than internal token expiration (%s ms)",
+          cacheTtl, applicationTokenExpiration));
+    }
+    this.webClient = webClient;
+    this.localTokenExchanger = localTokenExchanger.orElse(null);
+    this.tokenCache = Caffeine.newBuilder().maximumSize(cacheMaxSize)
+        .expireAfterWrite(Duration.ofMillis(cacheTtl)).buildAsync();
   }
 
   @Override
@@ -32,28 +66,47 @@ public class JwtFilter extends AbstractGatewayFilterFactory<JwtFilter.Config> {
       if (token != null && token.startsWith("Bearer ")) {
         token = token.substring(7);
       } else {
-        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-        return exchange.getResponse().setComplete();
+        return unauthorized(exchange);
       }
-      return webClientBuilder.build().post().uri("http://userService/validation/validate")
-          .bodyValue(new JWTTokenDTO(token)).retrieve().bodyToMono(JWTTokenDTO.class)
-          .switchIfEmpty(Mono.error(
-              new IllegalStateException("User Authentication server returned an empty response")))
-          .flatMap(internalToken -> {
-            if (internalToken == null) {
-              return Mono.error(new RuntimeException("Internal token is null"));
-            }
-            if (internalToken.getToken() == null) {
-              exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-              return exchange.getResponse().setComplete();
-            }
-            exchange.getRequest().mutate()
-                .header("Authorization", "Bearer " + internalToken.getToken());
-            return chain.filter(exchange);
-          });
+      // cancellation is suppressed so that one client disconnecting does not cancel the
+      // validation other requests are waiting on
+      return Mono.fromFuture(
+              tokenCache.get(token, (userToken, executor) -> validate(userToken).toFuture()), true)
+          .map(Optional::of).defaultIfEmpty(Optional.empty())
+          .flatMap(internalToken -> internalToken.map(t -> forward(exchange, chain, t))
+              .orElseGet(() -> unauthorized(exchange)));
     };
   }
 
+  /**
+   * Exchanges user token for an internal one. Completes empty if the token was rejected.
+   */
+  private Mono<String> validate(String token) {
+    if (localTokenExchanger != null) {
+      return localTokenExchanger.exchange(token, () -> validateRemotely(token));
+    }
+    return validateRemotely(token);
+  }
+
+  private Mono<String> validateRemotely(String token) {
+    return webClient.post().uri("http://userService/validation/validate")
+        .bodyValue(new JWTTokenDTO(token)).retrieve().bodyToMono(JWTTokenDTO.class)
+        .switchIfEmpty(Mono.error(
+            new IllegalStateException("User Authentication server returned an empty response")))
+        .flatMap(internalToken -> Mono.justOrEmpty(internalToken.getToken()));
+  }
+
+  private Mono<Void> unauthorized(ServerWebExchange exchange) {
+    exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+    return exchange.getResponse().setComplete();
+  }
+
+  private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain,
+      String internalToken) {
+    exchange.getRequest().mutate().header("Authorization", "Bearer " + internalToken);
+    return chain.filter(exchange);
+  }
+
   @NoArgsConstructor
   public static class Config {
 
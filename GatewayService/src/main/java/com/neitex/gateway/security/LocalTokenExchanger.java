@@ -0,0 +1,70 @@
+package com.neitex.gateway.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.neitex.gateway.dto.UserSecurityDTO;
+import java.util.Date;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies user auth tokens with the shared secret and issues internal user-data tokens at the
+ * gateway, so that UserService is only asked when the local snapshot can't decide.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.validation.mode", havingValue = "local")
+public class LocalTokenExchanger {
+
+  private final UserSecuritySnapshot snapshot;
+  private final Algorithm algorithm;
+  private final JWTVerifier authTokenVerifier;
+  private final Long applicationTokenExpiration;
+
+  public LocalTokenExchanger(UserSecuritySnapshot snapshot, @Value("${jwt.secret}") String secret,
+      @Value("${jwt.expiration.application:120000}") Long applicationTokenExpiration) {
+    this.snapshot = snapshot;
+    this.algorithm = Algorithm.HMAC256(secret);
+    this.authTokenVerifier = JWT.require(algorithm).withAudience("bookstore").build();
+    this.applicationTokenExpiration = applicationTokenExpiration;
+  }
+
+  /**
+   * Exchanges user token for an internal one. Completes empty if the token is rejected; falls back
+   * to {@code remote} when the snapshot is stale, does not know the user yet, or holds a salt that
+   * may simply predate the token.
+   */
+  public Mono<String> exchange(String token, Supplier<Mono<String>> remote) {
+    DecodedJWT jwt;
+    Long userId;
+    try {
+      jwt = authTokenVerifier.verify(token);
+      userId = Long.parseLong(jwt.getSubject());
+    } catch (JWTVerificationException | IllegalArgumentException e) {
+      return Mono.empty();
+    }
+    if (!snapshot.isFresh()) {
+      return remote.get();
+    }
+    Optional<UserSecurityDTO> user = snapshot.getUser(userId);
+    // a token without a salt, e.g. an internal one, must never match a user without one
+    String salt = jwt.getClaim("s").asString();
+    if (user.isEmpty() || salt == null || !salt.equals(user.get().getTokenSalt())) {
+      return remote.get();
+    }
+    return Mono.just(issueUserDataToken(user.get()));
+  }
+
+  private String issueUserDataToken(UserSecurityDTO user) {
+    return JWT.create().withSubject(user.getId().toString())
+        .withExpiresAt(new Date(System.currentTimeMillis() + applicationTokenExpiration))
+        .withAudience("bookstore").withClaim("login", user.getLogin())
+        .withClaim("name", user.getName()).withClaim("role", user.getRole()).sign(algorithm);
+  }
+}
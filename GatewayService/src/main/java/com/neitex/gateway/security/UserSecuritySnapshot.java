@@ -0,0 +1,94 @@
+package com.neitex.gateway.security;
+
+import com.neitex.gateway.dto.UserSecurityDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Copy of every user's token salt and role, periodically polled from UserService. A password
+ * change rotates the user's salt, so old tokens stop verifying locally once the next poll lands.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jwt.validation.mode", havingValue = "local")
+public class UserSecuritySnapshot {
+
+  private static final int PAGE_SIZE = 1000;
+
+  private final WebClient webClient;
+  private final Long refreshInterval;
+  private final Long maxStaleness;
+
+  private volatile Map<Long, UserSecurityDTO> users = Map.of();
+  private volatile long refreshedAt = 0;
+  private Disposable poller;
+
+  public UserSecuritySnapshot(@Qualifier("loadBalancedWebClient") WebClient webClient,
+      @Value("${jwt.local.refresh-interval:10000}") Long refreshInterval,
+      @Value("${jwt.local.max-staleness:30000}") Long maxStaleness) {
+    this.webClient = webClient;
+    this.refreshInterval = refreshInterval;
+    this.maxStaleness = maxStaleness;
+  }
+
+  @PostConstruct
+  public void startPolling() {
+    poller = Flux.interval(Duration.ZERO, Duration.ofMillis(refreshInterval))
+        .onBackpressureDrop()
+        .concatMap(tick -> refresh().onErrorResume(e -> {
+          log.warn("Failed to refresh user security snapshot: {}", e.getMessage());
+          return Mono.empty();
+        }))
+        .subscribe();
+  }
+
+  @PreDestroy
+  public void stopPolling() {
+    if (poller != null) {
+      poller.dispose();
+    }
+  }
+
+  private Mono<Void> refresh() {
+    return fetchPage(0L)
+        .expand(page -> page.size() < PAGE_SIZE ? Mono.empty()
+            : fetchPage(page.get(page.size() - 1).getId()))
+        .flatMapIterable(Function.identity())
+        .collectMap(UserSecurityDTO::getId, Function.identity())
+        .doOnNext(snapshot -> {
+          users = Map.copyOf(snapshot);
+          refreshedAt = System.currentTimeMillis();
+        }).then();
+  }
+
+  private Mono<List<UserSecurityDTO>> fetchPage(Long after) {
+    return webClient.get()
+        .uri("http://userService/validation/snapshot?after={after}&size={size}", after, PAGE_SIZE)
+        .retrieve().bodyToFlux(UserSecurityDTO.class).collectList();
+  }
+
+  /**
+   * Whether the snapshot is recent enough to make revocation decisions on.
+   */
+  public boolean isFresh() {
+    return System.currentTimeMillis() - refreshedAt <= maxStaleness;
+  }
+
+  public Optional<UserSecurityDTO> getUser(Long id) {
+    return Optional.ofNullable(users.get(id));
+  }
+}
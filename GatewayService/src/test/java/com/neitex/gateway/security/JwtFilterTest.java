@@ -1,13 +1,16 @@
 package com.neitex.gateway.security;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.neitex.gateway.dto.JWTTokenDTO;
+import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,14 +24,12 @@ import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 @ExtendWith(MockitoExtension.class)
 class JwtFilterTest {
 
-  @Mock
-  private WebClient.Builder webClientBuilder;
-
   @Mock
   private WebClient webClient;
 
@@ -45,12 +46,11 @@ class JwtFilterTest {
 
   @BeforeEach
   void setUp() {
-    jwtFilter = new JwtFilter(webClientBuilder);
+    jwtFilter = new JwtFilter(webClient, Optional.empty(), 60000L, 100L, 120000L);
   }
 
   @SuppressWarnings("unchecked")
   private void setupWebClientMock() {
-    when(webClientBuilder.build()).thenReturn(webClient);
     when(webClient.post()).thenReturn(requestBodyUriSpec);
     when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodyUriSpec);
     when(requestBodyUriSpec.bodyValue(any())).thenReturn(
@@ -86,6 +86,85 @@ class JwtFilterTest {
     verify(requestBodyUriSpec).bodyValue(new JWTTokenDTO(validToken));
   }
 
+  @Test
+  void shouldReuseCachedInternalToken() {
+    // Given
+    setupWebClientMock();
+    String validToken = "cached-jwt-token";
+    when(responseSpec.bodyToMono(JWTTokenDTO.class))
+        .thenReturn(Mono.just(new JWTTokenDTO("cached-internal-token")));
+    when(filterChain.filter(any())).thenReturn(Mono.empty());
+    GatewayFilter filter = jwtFilter.apply(new JwtFilter.Config());
+
+    // When
+    for (int i = 0; i < 3; i++) {
+      MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+          .header(HttpHeaders.AUTHORIZATION, "Bearer " + validToken)
+          .build());
+      StepVerifier.create(filter.filter(exchange, filterChain))
+          .verifyComplete();
+    }
+
+    // Then
+    verify(filterChain, times(3)).filter(any());
+    verify(requestBodyUriSpec, times(1)).bodyValue(new JWTTokenDTO(validToken));
+  }
+
+  @Test
+  void shouldNotCacheRejectedToken() {
+    // Given
+    setupWebClientMock();
+    when(responseSpec.bodyToMono(JWTTokenDTO.class))
+        .thenReturn(Mono.just(new JWTTokenDTO(null)));
+    GatewayFilter filter = jwtFilter.apply(new JwtFilter.Config());
+
+    // When
+    for (int i = 0; i < 2; i++) {
+      MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/")
+          .header(HttpHeaders.AUTHORIZATION, "Bearer rejected-token")
+          .build());
+      StepVerifier.create(filter.filter(exchange, filterChain))
+          .verifyComplete();
+      assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    // Then
+    verify(requestBodyUriSpec, times(2)).bodyValue(new JWTTokenDTO("rejected-token"));
+    verify(filterChain, never()).filter(any());
+  }
+
+  @Test
+  void shouldShareInFlightValidationBetweenConcurrentRequests() {
+    // Given
+    setupWebClientMock();
+    String validToken = "burst-jwt-token";
+    Sinks.One<JWTTokenDTO> validationResponse = Sinks.one();
+    when(responseSpec.bodyToMono(JWTTokenDTO.class)).thenReturn(validationResponse.asMono());
+    when(filterChain.filter(any())).thenReturn(Mono.empty());
+    GatewayFilter filter = jwtFilter.apply(new JwtFilter.Config());
+
+    // When
+    Mono<Void> first = filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + validToken)
+        .build()), filterChain);
+    Mono<Void> second = filter.filter(MockServerWebExchange.from(MockServerHttpRequest.get("/")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + validToken)
+        .build()), filterChain);
+    validationResponse.tryEmitValue(new JWTTokenDTO("burst-internal-token"));
+
+    // Then
+    StepVerifier.create(Mono.when(first, second))
+        .verifyComplete();
+    verify(requestBodyUriSpec, times(1)).bodyValue(new JWTTokenDTO(validToken));
+    verify(filterChain, times(2)).filter(any());
+  }
+
+  @Test
+  void shouldRejectCacheTtlLongerThanInternalTokenLifetime() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new JwtFilter(webClient, Optional.empty(), 120000L, 100L, 120000L));
+  }
+
   @Test
   void shouldRejectRequestWithoutToken() {
     // Given
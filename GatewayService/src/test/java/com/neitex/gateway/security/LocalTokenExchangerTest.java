@@ -0,0 +1,108 @@
+package com.neitex.gateway.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.neitex.gateway.dto.UserSecurityDTO;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class LocalTokenExchangerTest {
+
+  private static final String SECRET = "secret";
+
+  @Mock
+  private UserSecuritySnapshot snapshot;
+
+  private LocalTokenExchanger exchanger;
+  private AtomicInteger remoteCalls;
+  private Supplier<Mono<String>> remote;
+
+  @BeforeEach
+  void setUp() {
+    exchanger = new LocalTokenExchanger(snapshot, SECRET, 120000L);
+    remoteCalls = new AtomicInteger();
+    remote = () -> {
+      remoteCalls.incrementAndGet();
+      return Mono.just("remote-token");
+    };
+  }
+
+  private String authToken(String salt, String secret) {
+    return JWT.create().withSubject("1")
+        .withExpiresAt(new Date(System.currentTimeMillis() + 60000))
+        .withAudience("bookstore").withClaim("login", "login")
+        .withClaim("s", salt).sign(Algorithm.HMAC256(secret));
+  }
+
+  @Test
+  void shouldIssueInternalTokenLocallyWhenSaltMatches() {
+    when(snapshot.isFresh()).thenReturn(true);
+    when(snapshot.getUser(1L)).thenReturn(
+        Optional.of(new UserSecurityDTO(1L, "login", "Name", "EDITOR", "salt")));
+
+    StepVerifier.create(exchanger.exchange(authToken("salt", SECRET), remote))
+        .assertNext(token -> {
+          DecodedJWT jwt = JWT.require(Algorithm.HMAC256(SECRET)).build().verify(token);
+          assertThat(jwt.getSubject()).isEqualTo("1");
+          assertThat(jwt.getClaim("role").asString()).isEqualTo("EDITOR");
+          assertThat(jwt.getClaim("name").asString()).isEqualTo("Name");
+        })
+        .verifyComplete();
+    assertThat(remoteCalls.get()).isZero();
+  }
+
+  @Test
+  void shouldFallBackToRemoteWhenSaltDiffers() {
+    when(snapshot.isFresh()).thenReturn(true);
+    when(snapshot.getUser(1L)).thenReturn(
+        Optional.of(new UserSecurityDTO(1L, "login", "Name", "EDITOR", "rotated")));
+
+    StepVerifier.create(exchanger.exchange(authToken("salt", SECRET), remote))
+        .expectNext("remote-token")
+        .verifyComplete();
+    assertThat(remoteCalls.get()).isOne();
+  }
+
+  @Test
+  void shouldFallBackToRemoteWhenTokenAndUserHaveNoSalt() {
+    when(snapshot.isFresh()).thenReturn(true);
+    when(snapshot.getUser(1L)).thenReturn(
+        Optional.of(new UserSecurityDTO(1L, "login", "Name", "EDITOR", null)));
+
+    StepVerifier.create(exchanger.exchange(authToken(null, SECRET), remote))
+        .expectNext("remote-token")
+        .verifyComplete();
+    assertThat(remoteCalls.get()).isOne();
+  }
+
+  @Test
+  void shouldFallBackToRemoteWhenSnapshotIsStale() {
+    when(snapshot.isFresh()).thenReturn(false);
+
+    StepVerifier.create(exchanger.exchange(authToken("salt", SECRET), remote))
+        .expectNext("remote-token")
+        .verifyComplete();
+    assertThat(remoteCalls.get()).isOne();
+  }
+
+  @Test
+  void shouldRejectTokenWithBadSignatureWithoutRemoteCall() {
+    StepVerifier.create(exchanger.exchange(authToken("salt", "wrong-secret"), remote))
+        .verifyComplete();
+    assertThat(remoteCalls.get()).isZero();
+  }
+}
@@ -0,0 +1,27 @@
+package com.neitex.library.configuration;
+
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partial index over the leases of available books, which serves both the available books pages
+ * and their count without touching leased rows. Created at startup if missing, since the schema
+ * itself is generated by Hibernate.
+ */
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(name = "spring.jpa.database", havingValue = "postgresql")
+public class AvailableBooksIndex {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void createIndex() {
+    jdbcTemplate.execute("create index if not exists book_lease_available_idx"
+        + " on book_lease (book_id) where lease_date is null");
+  }
+}
@@ -21,7 +21,8 @@ public class SecurityConfiguration {
   @Bean
   public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
     http.authorizeHttpRequests(authorize -> authorize.requestMatchers("/actuator/**").permitAll()
-            .requestMatchers("/internal-books-lease/updates").permitAll()
+            .requestMatchers("/internal-books-lease/updates", "/internal-books-lease/updates/batch",
+                "/internal-books-lease/digest", "/internal-books-lease/ids").permitAll()
             .dispatcherTypeMatchers(DispatcherType.ERROR, DispatcherType.INCLUDE, DispatcherType.ASYNC,
                 DispatcherType.FORWARD).permitAll().requestMatchers("/**").authenticated())
         .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
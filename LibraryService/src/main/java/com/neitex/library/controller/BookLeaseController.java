@@ -3,14 +3,17 @@ package com.neitex.library.controller;
 import com.neitex.library.dto.BookLeaseRequestDTO;
 import com.neitex.library.dto.BookLeaseResponseDTO;
 import com.neitex.library.service.BookLeaseService;
+import com.neitex.library.util.Pagination;
 import java.util.List;
 import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -22,8 +25,11 @@ public class BookLeaseController {
 
   @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
   @GetMapping("/leases")
-  public List<BookLeaseResponseDTO> getBookLease() {
-    return bookLeaseService.getBookLeases();
+  public ResponseEntity<List<BookLeaseResponseDTO>> getBookLease(
+      @RequestParam(name = "after", defaultValue = "0") Long after,
+      @RequestParam(name = "size", required = false) Integer size) {
+    return Pagination.toResponse(bookLeaseService.getBookLeases(after, size),
+        BookLeaseResponseDTO::getBookId);
   }
 
   @PreAuthorize("hasRole('EDITOR') or hasRole('VIEWER')")
@@ -47,7 +53,16 @@ public class BookLeaseController {
 
   @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR')")
   @GetMapping("/leases/available")
-  public List<BookLeaseResponseDTO> getAvailableBooks() {
-    return bookLeaseService.getAvailableBooks();
+  public ResponseEntity<List<BookLeaseResponseDTO>> getAvailableBooks(
+      @RequestParam(name = "after", defaultValue = "0") Long after,
+      @RequestParam(name = "size", required = false) Integer size) {
+    return Pagination.toResponse(bookLeaseService.getAvailableBooks(after, size),
+        BookLeaseResponseDTO::getBookId);
+  }
+
+  @PreAuthorize("hasRole('VIEWER') or hasRole('EDITOR')")
+  @GetMapping("/leases/available/count")
+  public long countAvailableBooks() {
+    return bookLeaseService.countAvailableBooks();
   }
 }
@@ -42,7 +42,7 @@ public class GlobalExceptionHandler {
   @ExceptionHandler(IllegalLeaseStateException.class)
   @ResponseStatus(HttpStatus.CONFLICT)
   public ErrorMessage handleIllegalLeaseStateException(IllegalLeaseStateException e) {
-    return new ErrorMessage("Illegal lease state", e.getMessage(), HttpStatus.BAD_REQUEST.value());
+    return new ErrorMessage("Illegal lease state", e.getMessage(), HttpStatus.CONFLICT.value());
   }
 
   public record ErrorMessage(String error, String message, int status) {
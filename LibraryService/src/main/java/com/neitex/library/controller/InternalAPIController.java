@@ -1,13 +1,18 @@
 package com.neitex.library.controller;
 
+import com.neitex.library.dto.BookLeaseBatchUpdateResponseDTO;
 import com.neitex.library.dto.BookLeaseUpdateRequestDTO;
 import com.neitex.library.dto.BookLeaseUpdateResponseDTO;
 import com.neitex.library.dto.BookUpdateType;
+import com.neitex.library.dto.IdRangeDigestDTO;
 import com.neitex.library.service.BookLeaseService;
+import java.util.List;
 import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -27,4 +32,21 @@ public class InternalAPIController {
     }
     return new BookLeaseUpdateResponseDTO(true);
   }
+
+  @PostMapping("/updates/batch")
+  public BookLeaseBatchUpdateResponseDTO updateBooks(@RequestBody
+  List<BookLeaseUpdateRequestDTO> bookLeaseUpdateRequestDTOs) {
+    return bookLeaseService.applyUpdates(bookLeaseUpdateRequestDTOs);
+  }
+
+  @GetMapping("/digest")
+  public List<IdRangeDigestDTO> digestBookIds(@RequestParam("bounds") List<Long> bounds) {
+    return bookLeaseService.digestBookIds(bounds);
+  }
+
+  @GetMapping("/ids")
+  public List<Long> getBookIds(@RequestParam("from") Long from, @RequestParam("to") Long to,
+      @RequestParam(value = "limit", defaultValue = "1000") Integer limit) {
+    return bookLeaseService.getBookIds(from, to, limit);
+  }
 }
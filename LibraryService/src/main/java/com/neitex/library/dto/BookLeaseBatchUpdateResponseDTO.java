@@ -0,0 +1,45 @@
+package com.neitex.library.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookLeaseBatchUpdateResponseDTO {
+
+  private int created;
+  private int deleted;
+  /**
+   * One result per update, in request order.
+   */
+  private List<UpdateResult> results;
+
+  @Data
+  @AllArgsConstructor
+  public static class UpdateResult {
+
+    private Long bookId;
+    private BookUpdateType updateType;
+    private UpdateStatus status;
+  }
+
+  public enum UpdateStatus {
+    /**
+     * A lease was created for the book.
+     */
+    CREATED,
+    /**
+     * The book already had a lease, nothing was changed.
+     */
+    ALREADY_EXISTS,
+    /**
+     * The book has no lease anymore, whether or not it had one before.
+     */
+    DELETED,
+    /**
+     * A later update of the same book in the batch was applied instead.
+     */
+    SUPERSEDED
+  }
+}
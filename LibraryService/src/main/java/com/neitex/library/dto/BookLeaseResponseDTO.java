@@ -1,5 +1,6 @@
 package com.neitex.library.dto;
 
+import com.neitex.library.model.BookLease;
 import java.time.LocalDateTime;
 import lombok.Data;
 
@@ -9,4 +10,12 @@ public class BookLeaseResponseDTO {
   private Long bookId;
   private LocalDateTime leaseDate;
   private LocalDateTime returnDate;
+
+  public static BookLeaseResponseDTO from(BookLease bookLease) {
+    BookLeaseResponseDTO dto = new BookLeaseResponseDTO();
+    dto.bookId = bookLease.getBookId();
+    dto.leaseDate = bookLease.getLeaseDate();
+    dto.returnDate = bookLease.getReturnDate();
+    return dto;
+  }
 }
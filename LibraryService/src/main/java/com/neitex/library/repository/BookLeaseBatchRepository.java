@@ -0,0 +1,17 @@
+package com.neitex.library.repository;
+
+import java.util.List;
+
+/**
+ * Set-based lease writes for batches of book updates.
+ */
+public interface BookLeaseBatchRepository {
+
+  /**
+   * Creates free leases for the given books, skipping books that already have one. All inserts
+   * are sent to the database in one JDBC batch.
+   *
+   * @return for every book, in order, 1 if its lease was created and 0 if it already existed
+   */
+  int[] insertMissingLeases(List<Long> bookIds);
+}
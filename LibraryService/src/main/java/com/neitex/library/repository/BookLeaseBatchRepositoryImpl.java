@@ -0,0 +1,18 @@
+package com.neitex.library.repository;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@AllArgsConstructor
+class BookLeaseBatchRepositoryImpl implements BookLeaseBatchRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public int[] insertMissingLeases(List<Long> bookIds) {
+    return jdbcTemplate.batchUpdate(
+        "insert into book_lease (book_id) values (?) on conflict do nothing",
+        bookIds.stream().map(bookId -> new Object[]{bookId}).toList());
+  }
+}
@@ -1,14 +1,59 @@
 package com.neitex.library.repository;
 
 import com.neitex.library.model.BookLease;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BookLeaseRepository extends JpaRepository<BookLease, Long> {
+public interface BookLeaseRepository extends JpaRepository<BookLease, Long>,
+    BookLeaseBatchRepository {
 
-  @Query("from BookLease where leaseDate is null")
-  List<BookLease> findAvailableBooks();
+  Slice<BookLease> findByBookIdGreaterThanOrderByBookId(Long bookId, Pageable pageable);
+
+  /**
+   * Served by the partial index created by
+   * {@link com.neitex.library.configuration.AvailableBooksIndex}, as is {@link #countAvailable()}.
+   */
+  @Query("from BookLease l where l.leaseDate is null and l.bookId > :bookId order by l.bookId")
+  Slice<BookLease> findAvailable(@Param("bookId") Long bookId, Pageable pageable);
+
+  @Query("select count(l) from BookLease l where l.leaseDate is null")
+  long countAvailable();
+
+  /**
+   * @return 1 if the book was available and is now leased, 0 otherwise
+   */
+  @Modifying
+  @Query("update BookLease l set l.leaseDate = :leaseDate, l.returnDate = :returnDate"
+      + " where l.bookId = :bookId and l.leaseDate is null")
+  int leaseIfAvailable(@Param("bookId") Long bookId, @Param("leaseDate") LocalDateTime leaseDate,
+      @Param("returnDate") LocalDateTime returnDate);
+
+  /**
+   * @return 1 if the book was leased and is now available, 0 otherwise
+   */
+  @Modifying
+  @Query("update BookLease l set l.leaseDate = null, l.returnDate = null"
+      + " where l.bookId = :bookId and l.leaseDate is not null")
+  int returnIfLeased(@Param("bookId") Long bookId);
+
+  @Query("select l.bookId from BookLease l where l.bookId >= :from and l.bookId < :to"
+      + " order by l.bookId")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  Stream<Long> streamBookIds(@Param("from") Long from, @Param("to") Long to);
+
+  @Query("select l.bookId from BookLease l where l.bookId >= :from and l.bookId < :to"
+      + " order by l.bookId")
+  List<Long> findBookIds(@Param("from") Long from, @Param("to") Long to, Pageable pageable);
 }
@@ -7,10 +7,8 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -40,15 +38,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     var jwt = authHeader.substring(BEARER_PREFIX.length());
 
     if (SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = jwtService.getUserDetails(jwt);
-
       SecurityContext context = SecurityContextHolder.createEmptyContext();
-      UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-          userDetails,
-          null,
-          userDetails.getAuthorities()
-      );
-      context.setAuthentication(authToken);
+      context.setAuthentication(jwtService.getAuthentication(jwt));
       SecurityContextHolder.setContext(context);
     }
     filterChain.doFilter(request, response);
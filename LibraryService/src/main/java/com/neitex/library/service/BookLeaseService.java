@@ -1,31 +1,46 @@
 package com.neitex.library.service;
 
+import com.neitex.library.dto.BookLeaseBatchUpdateResponseDTO;
+import com.neitex.library.dto.BookLeaseBatchUpdateResponseDTO.UpdateResult;
+import com.neitex.library.dto.BookLeaseBatchUpdateResponseDTO.UpdateStatus;
 import com.neitex.library.dto.BookLeaseRequestDTO;
 import com.neitex.library.dto.BookLeaseResponseDTO;
+import com.neitex.library.dto.BookLeaseUpdateRequestDTO;
+import com.neitex.library.dto.BookUpdateType;
+import com.neitex.library.dto.IdRangeDigestDTO;
 import com.neitex.library.exception.BadFieldContentsException;
 import com.neitex.library.exception.BookLeaseAlreadyExistsException;
 import com.neitex.library.exception.BookLeaseDoesNotExist;
 import com.neitex.library.exception.IllegalLeaseStateException;
 import com.neitex.library.model.BookLease;
 import com.neitex.library.repository.BookLeaseRepository;
+import com.neitex.library.util.Pagination;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 @Service
 @AllArgsConstructor
 public class BookLeaseService {
 
+  private static final int MAX_DIGEST_RANGES = 256;
+  private static final int MAX_BOOK_IDS = 10000;
+
   private final BookLeaseRepository bookLeaseRepository;
-  private final ModelMapper modelMapper;
 
   public BookLeaseResponseDTO getBookLease(Long bookId) {
-    return modelMapper.map(bookLeaseRepository.findById(bookId)
-            .orElseThrow(
-                () -> new BookLeaseDoesNotExist("Book lease with ID " + bookId + " does not exist")),
-        BookLeaseResponseDTO.class);
+    return BookLeaseResponseDTO.from(bookLeaseRepository.findById(bookId).orElseThrow(
+        () -> new BookLeaseDoesNotExist("Book lease with ID " + bookId + " does not exist")));
   }
 
   public void createBookLease(Long bookId) {
@@ -41,14 +56,109 @@ public class BookLeaseService {
     bookLeaseRepository.deleteById(bookId);
   }
 
-  public BookLeaseResponseDTO leaseBook(Long bookId, BookLeaseRequestDTO bookLeaseRequestDTO) {
-    BookLease bookLease = bookLeaseRepository.findById(bookId).orElseThrow(
-        () -> new BookLeaseDoesNotExist("Book lease with ID " + bookId + " does not exist"));
-    if (bookLease.getLeaseDate() != null) {
-      throw new IllegalLeaseStateException(
-          String.format("Book with ID %s is already leased (lease date: %s, return date: %s)",
-              bookId, bookLease.getLeaseDate(), bookLease.getReturnDate().toString()));
+  /**
+   * Applies a batch of book updates in one transaction. Only the last update of every book counts:
+   * leases are created for created books that don't have one yet and removed for deleted books,
+   * with one statement for all deletes and one JDBC batch for all inserts.
+   */
+  @Transactional
+  public BookLeaseBatchUpdateResponseDTO applyUpdates(List<BookLeaseUpdateRequestDTO> updates) {
+    // sorted, so that concurrent batches lock the same rows in the same order
+    Map<Long, Integer> latest = new TreeMap<>();
+    for (int i = 0; i < updates.size(); i++) {
+      BookLeaseUpdateRequestDTO update = updates.get(i);
+      if (update.getBookId() == null || update.getUpdateType() == null) {
+        throw new BadFieldContentsException("Update " + i + " has no book ID or update type");
+      }
+      latest.put(update.getBookId(), i);
+    }
+    List<Long> created = new ArrayList<>();
+    List<Long> deleted = new ArrayList<>();
+    for (Map.Entry<Long, Integer> entry : latest.entrySet()) {
+      if (updates.get(entry.getValue()).getUpdateType() == BookUpdateType.DELETED) {
+        deleted.add(entry.getKey());
+      } else {
+        created.add(entry.getKey());
+      }
+    }
+    if (!deleted.isEmpty()) {
+      bookLeaseRepository.deleteAllByIdInBatch(deleted);
+    }
+    Set<Long> inserted = new HashSet<>();
+    if (!created.isEmpty()) {
+      int[] counts = bookLeaseRepository.insertMissingLeases(created);
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] > 0) {
+          inserted.add(created.get(i));
+        }
+      }
+    }
+    List<UpdateResult> results = new ArrayList<>(updates.size());
+    for (int i = 0; i < updates.size(); i++) {
+      BookLeaseUpdateRequestDTO update = updates.get(i);
+      UpdateStatus status;
+      if (latest.get(update.getBookId()) != i) {
+        status = UpdateStatus.SUPERSEDED;
+      } else if (update.getUpdateType() == BookUpdateType.DELETED) {
+        status = UpdateStatus.DELETED;
+      } else {
+        status = inserted.contains(update.getBookId()) ? UpdateStatus.CREATED
+            : UpdateStatus.ALREADY_EXISTS;
+      }
+      results.add(new UpdateResult(update.getBookId(), update.getUpdateType(), status));
+    }
+    return new BookLeaseBatchUpdateResponseDTO(inserted.size(), deleted.size(), results);
+  }
+
+  /**
+   * Digests of the leased book IDs in the consecutive ranges {@code [bounds[i], bounds[i + 1])},
+   * computed in one ordered pass over the IDs without holding them in memory.
+   */
+  @Transactional
+  public List<IdRangeDigestDTO> digestBookIds(List<Long> bounds) {
+    if (bounds.size() < 2 || bounds.size() > MAX_DIGEST_RANGES + 1) {
+      throw new BadFieldContentsException(
+          "Between 2 and " + (MAX_DIGEST_RANGES + 1) + " range bounds are expected");
+    }
+    List<IdRangeDigestDTO> digests = new ArrayList<>(bounds.size() - 1);
+    for (int i = 1; i < bounds.size(); i++) {
+      if (bounds.get(i) <= bounds.get(i - 1)) {
+        throw new BadFieldContentsException("Range bounds must be strictly increasing");
+      }
+      digests.add(new IdRangeDigestDTO());
+    }
+    try (Stream<Long> ids = bookLeaseRepository.streamBookIds(bounds.get(0),
+        bounds.get(bounds.size() - 1))) {
+      int range = 0;
+      for (Iterator<Long> iterator = ids.iterator(); iterator.hasNext(); ) {
+        long id = iterator.next();
+        while (id >= bounds.get(range + 1)) {
+          range++;
+        }
+        digests.get(range).add(id);
+      }
     }
+    return digests;
+  }
+
+  /**
+   * Leased book IDs in {@code [from, to)}, in ascending order. Meant for ranges whose digest is
+   * known to be small, so the number of IDs is capped.
+   */
+  public List<Long> getBookIds(Long from, Long to, Integer limit) {
+    if (limit < 1 || limit > MAX_BOOK_IDS) {
+      throw new BadFieldContentsException("Limit must be between 1 and " + MAX_BOOK_IDS);
+    }
+    return bookLeaseRepository.findBookIds(from, to, PageRequest.of(0, limit));
+  }
+
+  /**
+   * Leases the book with a single conditional update, so that of concurrent requests for the same
+   * book exactly one succeeds. The lease is read only to explain why the update didn't apply; if
+   * the book was returned in between, the update is retried once.
+   */
+  @Transactional
+  public BookLeaseResponseDTO leaseBook(Long bookId, BookLeaseRequestDTO bookLeaseRequestDTO) {
     if (bookLeaseRequestDTO.getLeaseDate() == null) {
       throw new BadFieldContentsException("Lease date is not set");
     }
@@ -61,32 +171,68 @@ public class BookLeaseService {
                 bookLeaseRequestDTO.getReturnDate(), bookLeaseRequestDTO.getLeaseDate()));
       }
     }
+    if (bookLeaseRepository.leaseIfAvailable(bookId, bookLeaseRequestDTO.getLeaseDate(),
+        bookLeaseRequestDTO.getReturnDate()) == 0) {
+      BookLease bookLease = bookLeaseRepository.findById(bookId).orElseThrow(
+          () -> new BookLeaseDoesNotExist("Book lease with ID " + bookId + " does not exist"));
+      if (bookLease.getLeaseDate() != null) {
+        throw new IllegalLeaseStateException(
+            String.format("Book with ID %s is already leased (lease date: %s, return date: %s)",
+                bookId, bookLease.getLeaseDate(), bookLease.getReturnDate()));
+      }
+      if (bookLeaseRepository.leaseIfAvailable(bookId, bookLeaseRequestDTO.getLeaseDate(),
+          bookLeaseRequestDTO.getReturnDate()) == 0) {
+        throw new IllegalLeaseStateException(
+            String.format("Book with ID %s was leased concurrently", bookId));
+      }
+    }
+    BookLease bookLease = new BookLease();
+    bookLease.setBookId(bookId);
     bookLease.setLeaseDate(bookLeaseRequestDTO.getLeaseDate());
     bookLease.setReturnDate(bookLeaseRequestDTO.getReturnDate());
-    return modelMapper.map(bookLeaseRepository.save(bookLease), BookLeaseResponseDTO.class);
+    return BookLeaseResponseDTO.from(bookLease);
   }
 
+  /**
+   * Returns the book with a single conditional update, see {@link #leaseBook}. The error is based
+   * on a single read of the lease; if the book was leased in between, the update is retried once.
+   */
+  @Transactional
   public BookLeaseResponseDTO returnBook(Long bookId) {
-    BookLease bookLease = bookLeaseRepository.findById(bookId).orElseThrow(
-        () -> new BookLeaseDoesNotExist("Book lease with ID " + bookId + " does not exist"));
-    if (bookLease.getLeaseDate() == null) {
-      throw new IllegalLeaseStateException(
-          String.format("Book with ID %s is not leased", bookId));
+    if (bookLeaseRepository.returnIfLeased(bookId) == 0) {
+      BookLease bookLease = bookLeaseRepository.findById(bookId).orElseThrow(
+          () -> new BookLeaseDoesNotExist("Book lease with ID " + bookId + " does not exist"));
+      if (bookLease.getLeaseDate() == null) {
+        throw new IllegalLeaseStateException(
+            String.format("Book with ID %s is not leased", bookId));
+      }
+      if (bookLeaseRepository.returnIfLeased(bookId) == 0) {
+        throw new IllegalLeaseStateException(
+            String.format("Book with ID %s was returned concurrently", bookId));
+      }
     }
-    bookLease.setLeaseDate(null);
-    bookLease.setReturnDate(null);
-    return modelMapper.map(bookLeaseRepository.save(bookLease), BookLeaseResponseDTO.class);
+    BookLease bookLease = new BookLease();
+    bookLease.setBookId(bookId);
+    return BookLeaseResponseDTO.from(bookLease);
+  }
+
+  /**
+   * @param after book ID of the last lease of the previous page
+   */
+  public Slice<BookLeaseResponseDTO> getBookLeases(Long after, Integer size) {
+    return bookLeaseRepository.findByBookIdGreaterThanOrderByBookId(after,
+        Pagination.firstPage(size)).map(BookLeaseResponseDTO::from);
   }
 
-  public List<BookLeaseResponseDTO> getBookLeases() {
-    return bookLeaseRepository.findAll().stream()
-        .map(bookLease -> modelMapper.map(bookLease, BookLeaseResponseDTO.class))
-        .collect(Collectors.toList());
+  /**
+   * @param after book ID of the last lease of the previous page
+   */
+  public Slice<BookLeaseResponseDTO> getAvailableBooks(Long after, Integer size) {
+    return bookLeaseRepository.findAvailable(after, Pagination.firstPage(size))
+        .map(BookLeaseResponseDTO::from);
   }
 
-  public List<BookLeaseResponseDTO> getAvailableBooks() {
-    return bookLeaseRepository.findAvailableBooks().stream()
-        .map(bookLease -> modelMapper.map(bookLease, BookLeaseResponseDTO.class))
-        .collect(Collectors.toList());
+  public long countAvailableBooks() {
+    return bookLeaseRepository.countAvailable();
   }
 }
@@ -0,0 +1,36 @@
+package com.neitex.library.util;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Keyset pagination by book ID: a page holds leases with book ID greater than the cursor, and the
+ * book ID of the last one is returned in {@link #NEXT_CURSOR_HEADER} if there are more.
+ */
+public class Pagination {
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+
+  /**
+   * @param size requested page size, clamped to {@code [1, MAX_PAGE_SIZE]}
+   */
+  public static Pageable firstPage(Integer size) {
+    int limited = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    return PageRequest.of(0, limited);
+  }
+
+  public static <T> ResponseEntity<List<T>> toResponse(Slice<T> slice, Function<T, Long> id) {
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (slice.hasNext() && slice.hasContent()) {
+      List<T> content = slice.getContent();
+      response.header(NEXT_CURSOR_HEADER, id.apply(content.get(content.size() - 1)).toString());
+    }
+    return response.body(slice.getContent());
+  }
+}
@@ -2,6 +2,10 @@ package com.neitex.library;
 
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -12,8 +16,10 @@ import com.neitex.library.dto.BookLeaseUpdateRequestDTO;
 import com.neitex.library.dto.BookUpdateType;
 import com.neitex.library.repository.BookLeaseRepository;
 import com.neitex.library.service.BookLeaseService;
+import com.neitex.library.util.Pagination;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -86,6 +92,24 @@ public class LibraryIntegrationTest {
         .andExpect(jsonPath("$.returnDate", equalTo(leaseRequestDTO.getReturnDate().toString())));
   }
 
+  @Test
+  @WithMockUser(roles = "EDITOR")
+  public void testLeaseLeasedBookConflicts() throws Exception {
+    BookLeaseRequestDTO leaseRequestDTO = new BookLeaseRequestDTO();
+    leaseRequestDTO.setLeaseDate(LocalDateTime.now());
+    leaseRequestDTO.setReturnDate(LocalDateTime.now().plusDays(7));
+    bookLeaseService.leaseBook(bookId, leaseRequestDTO);
+    mockMvc.perform(MockMvcRequestBuilders.post("/books-lease/leases/{bookId}/lease", bookId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(leaseRequestDTO)))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.status", equalTo(409)));
+    mockMvc.perform(MockMvcRequestBuilders.post("/books-lease/leases/{bookId}/lease", bookId + 100)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(leaseRequestDTO)))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   @WithMockUser(roles = "EDITOR")
   public void testReturnBook() throws Exception {
@@ -107,6 +131,33 @@ public class LibraryIntegrationTest {
         .andExpect(status().isOk()).andExpect(jsonPath("$").isArray());
   }
 
+  @Test
+  @WithMockUser(roles = {"VIEWER", "EDITOR"})
+  public void testGetAvailableBooksPagesByCursor() throws Exception {
+    bookLeaseService.createBookLease(bookId + 1);
+    bookLeaseService.createBookLease(bookId + 2);
+    BookLeaseRequestDTO leaseRequestDTO = new BookLeaseRequestDTO();
+    leaseRequestDTO.setLeaseDate(LocalDateTime.now());
+    leaseRequestDTO.setReturnDate(LocalDateTime.now().plusDays(7));
+    bookLeaseService.leaseBook(bookId + 1, leaseRequestDTO);
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/books-lease/leases/available")
+            .param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", equalTo(1)))
+        .andExpect(jsonPath("$[0].bookId", equalTo(bookId.intValue())))
+        .andExpect(header().string(Pagination.NEXT_CURSOR_HEADER, bookId.toString()));
+    mockMvc.perform(MockMvcRequestBuilders.get("/books-lease/leases/available")
+            .param("after", bookId.toString()).param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", equalTo(1)))
+        .andExpect(jsonPath("$[0].bookId", equalTo((int) (bookId + 2))))
+        .andExpect(header().doesNotExist(Pagination.NEXT_CURSOR_HEADER));
+    mockMvc.perform(MockMvcRequestBuilders.get("/books-lease/leases/available/count"))
+        .andExpect(status().isOk())
+        .andExpect(content().string("2"));
+  }
+
   @Test
   @WithMockUser(roles = "ADMIN")
   public void testUpdateBookCreateLease() throws Exception {
@@ -135,4 +186,62 @@ public class LibraryIntegrationTest {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.ok").value(true));
   }
+
+  @Test
+  public void testUpdateBooksInBatchWithoutToken() throws Exception {
+    BookLeaseUpdateRequestDTO requestDTO = new BookLeaseUpdateRequestDTO();
+    requestDTO.setBookId(bookId + 1);
+    requestDTO.setUpdateType(BookUpdateType.CREATED);
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/internal-books-lease/updates/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(List.of(requestDTO))))
+        .andExpect(status().isOk());
+
+    assertTrue(repository.existsById(bookId + 1));
+  }
+
+  @Test
+  @WithMockUser(roles = "ADMIN")
+  public void testUpdateBooksInBatch() throws Exception {
+    bookLeaseService.createBookLease(bookId + 2);
+    bookLeaseService.createBookLease(bookId + 3);
+    List<BookLeaseUpdateRequestDTO> updates = List.of(
+        update(bookId + 2, BookUpdateType.CREATED),
+        update(bookId + 3, BookUpdateType.DELETED),
+        update(bookId + 4, BookUpdateType.CREATED));
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/internal-books-lease/updates/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(updates)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created").value(1))
+        .andExpect(jsonPath("$.deleted").value(1))
+        .andExpect(jsonPath("$.results[0].status").value("ALREADY_EXISTS"))
+        .andExpect(jsonPath("$.results[1].status").value("DELETED"))
+        .andExpect(jsonPath("$.results[2].status").value("CREATED"));
+
+    assertTrue(repository.existsById(bookId + 4));
+    assertFalse(repository.existsById(bookId + 3));
+  }
+
+  @Test
+  public void testDigestBookIdsWithoutToken() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/internal-books-lease/digest")
+            .param("bounds", "0", String.valueOf(bookId + 1)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].count").value(1))
+        .andExpect(jsonPath("$[0].minId").value(bookId.intValue()));
+    mockMvc.perform(MockMvcRequestBuilders.get("/internal-books-lease/ids")
+            .param("from", "0").param("to", String.valueOf(bookId + 1)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0]").value(bookId.intValue()));
+  }
+
+  private static BookLeaseUpdateRequestDTO update(Long bookId, BookUpdateType updateType) {
+    BookLeaseUpdateRequestDTO update = new BookLeaseUpdateRequestDTO();
+    update.setBookId(bookId);
+    update.setUpdateType(updateType);
+    return update;
+  }
 }
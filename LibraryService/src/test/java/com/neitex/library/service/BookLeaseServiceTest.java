@@ -1,15 +1,23 @@
 package com.neitex.library.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.neitex.library.dto.BookLeaseBatchUpdateResponseDTO;
+import com.neitex.library.dto.BookLeaseBatchUpdateResponseDTO.UpdateResult;
+import com.neitex.library.dto.BookLeaseBatchUpdateResponseDTO.UpdateStatus;
 import com.neitex.library.dto.BookLeaseRequestDTO;
 import com.neitex.library.dto.BookLeaseResponseDTO;
+import com.neitex.library.dto.BookLeaseUpdateRequestDTO;
+import com.neitex.library.dto.BookUpdateType;
+import com.neitex.library.dto.IdRangeDigestDTO;
 import com.neitex.library.exception.BadFieldContentsException;
 import com.neitex.library.exception.BookLeaseAlreadyExistsException;
 import com.neitex.library.exception.BookLeaseDoesNotExist;
@@ -21,23 +29,22 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 class BookLeaseServiceTest {
 
   private BookLeaseRepository bookLeaseRepository;
 
-  private ModelMapper modelMapper;
-
   private BookLeaseService bookLeaseService;
 
   @BeforeEach
   void setUp() {
     bookLeaseRepository = mock(BookLeaseRepository.class);
-    modelMapper = mock(ModelMapper.class);
-    bookLeaseService = new BookLeaseService(bookLeaseRepository, modelMapper);
+    bookLeaseService = new BookLeaseService(bookLeaseRepository);
   }
 
   @Test
@@ -45,14 +52,12 @@ class BookLeaseServiceTest {
     Long bookId = 1L;
     BookLease bookLease = new BookLease();
     bookLease.setBookId(bookId);
-    BookLeaseResponseDTO responseDTO = new BookLeaseResponseDTO();
 
     when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
-    when(modelMapper.map(bookLease, BookLeaseResponseDTO.class)).thenReturn(responseDTO);
 
     BookLeaseResponseDTO result = bookLeaseService.getBookLease(bookId);
 
-    assertEquals(responseDTO, result);
+    assertEquals(BookLeaseResponseDTO.from(bookLease), result);
   }
 
   @Test
@@ -95,20 +100,20 @@ class BookLeaseServiceTest {
   }
 
   @Test
-  void getBookLeasesReturnsListOfBookLeaseResponseDTOs() {
+  void getBookLeasesReturnsPageOfBookLeaseResponseDTOs() {
     BookLease bookLease = new BookLease();
-    BookLeaseResponseDTO responseDTO = new BookLeaseResponseDTO();
 
-    when(bookLeaseRepository.findAll()).thenReturn(Collections.singletonList(bookLease));
-    when(modelMapper.map(bookLease, BookLeaseResponseDTO.class)).thenReturn(responseDTO);
+    when(bookLeaseRepository.findByBookIdGreaterThanOrderByBookId(0L, PageRequest.of(0, 50)))
+        .thenReturn(new SliceImpl<>(Collections.singletonList(bookLease)));
 
-    assertEquals(Collections.singletonList(responseDTO), bookLeaseService.getBookLeases());
+    assertEquals(Collections.singletonList(BookLeaseResponseDTO.from(bookLease)),
+        bookLeaseService.getBookLeases(0L, null).getContent());
   }
 
   @Test
   void leaseBookThrowsExceptionWhenBookLeaseDoesNotExist() {
     Long bookId = 1L;
-    BookLeaseRequestDTO requestDTO = new BookLeaseRequestDTO();
+    BookLeaseRequestDTO requestDTO = leaseRequest();
 
     when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.empty());
 
@@ -118,11 +123,13 @@ class BookLeaseServiceTest {
   @Test
   void leaseBookThrowsExceptionWhenBookIsAlreadyLeased() {
     Long bookId = 1L;
-    BookLeaseRequestDTO requestDTO = new BookLeaseRequestDTO();
+    BookLeaseRequestDTO requestDTO = leaseRequest();
     BookLease bookLease = new BookLease();
     bookLease.setLeaseDate(LocalDateTime.now());
     bookLease.setReturnDate(LocalDateTime.now().plusDays(1));
 
+    when(bookLeaseRepository.leaseIfAvailable(bookId, requestDTO.getLeaseDate(),
+        requestDTO.getReturnDate())).thenReturn(0);
     when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
 
     assertThrows(
@@ -130,16 +137,43 @@ class BookLeaseServiceTest {
   }
 
   @Test
-  void leaseBookThrowsExceptionWhenLeaseDateIsNotSet() {
+  void leaseBookRetriesOnceWhenBookWasReturnedConcurrently() {
     Long bookId = 1L;
-    BookLeaseRequestDTO requestDTO = new BookLeaseRequestDTO();
+    BookLeaseRequestDTO requestDTO = leaseRequest();
 
-    BookLease bookLease = new BookLease();
+    when(bookLeaseRepository.leaseIfAvailable(bookId, requestDTO.getLeaseDate(),
+        requestDTO.getReturnDate())).thenReturn(0, 1);
+    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(new BookLease()));
 
-    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
+    BookLeaseResponseDTO result = bookLeaseService.leaseBook(bookId, requestDTO);
+
+    assertEquals(requestDTO.getLeaseDate(), result.getLeaseDate());
+    verify(bookLeaseRepository, times(2)).leaseIfAvailable(bookId, requestDTO.getLeaseDate(),
+        requestDTO.getReturnDate());
+  }
+
+  @Test
+  void leaseBookReportsConflictWithoutStaleDatesWhenRetryFails() {
+    Long bookId = 1L;
+    BookLeaseRequestDTO requestDTO = leaseRequest();
+
+    when(bookLeaseRepository.leaseIfAvailable(bookId, requestDTO.getLeaseDate(),
+        requestDTO.getReturnDate())).thenReturn(0);
+    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(new BookLease()));
+
+    IllegalLeaseStateException exception = assertThrows(
+        IllegalLeaseStateException.class, () -> bookLeaseService.leaseBook(bookId, requestDTO));
+    assertEquals("Book with ID 1 was leased concurrently", exception.getMessage());
+  }
+
+  @Test
+  void leaseBookThrowsExceptionWhenLeaseDateIsNotSet() {
+    Long bookId = 1L;
+    BookLeaseRequestDTO requestDTO = new BookLeaseRequestDTO();
 
     assertThrows(BadFieldContentsException.class,
         () -> bookLeaseService.leaseBook(bookId, requestDTO));
+    verify(bookLeaseRepository, never()).leaseIfAvailable(any(), any(), any());
   }
 
   @Test
@@ -148,10 +182,6 @@ class BookLeaseServiceTest {
     BookLeaseRequestDTO requestDTO = new BookLeaseRequestDTO();
     requestDTO.setLeaseDate(LocalDateTime.now());
 
-    BookLease bookLease = new BookLease();
-
-    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
-
     assertThrows(BadFieldContentsException.class,
         () -> bookLeaseService.leaseBook(bookId, requestDTO));
   }
@@ -163,10 +193,6 @@ class BookLeaseServiceTest {
     requestDTO.setLeaseDate(LocalDateTime.now());
     requestDTO.setReturnDate(LocalDateTime.now().minusDays(1));
 
-    BookLease bookLease = new BookLease();
-
-    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
-
     assertThrows(BadFieldContentsException.class,
         () -> bookLeaseService.leaseBook(bookId, requestDTO));
   }
@@ -174,20 +200,17 @@ class BookLeaseServiceTest {
   @Test
   void leaseBookLeasesBookSuccessfully() {
     Long bookId = 1L;
-    BookLeaseRequestDTO requestDTO = new BookLeaseRequestDTO();
-    requestDTO.setLeaseDate(LocalDateTime.now());
-    requestDTO.setReturnDate(LocalDateTime.now().plusDays(1));
+    BookLeaseRequestDTO requestDTO = leaseRequest();
 
-    BookLease bookLease = new BookLease();
-    BookLeaseResponseDTO responseDTO = new BookLeaseResponseDTO();
-
-    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
-    when(bookLeaseRepository.save(any(BookLease.class))).thenReturn(bookLease);
-    when(modelMapper.map(bookLease, BookLeaseResponseDTO.class)).thenReturn(responseDTO);
+    when(bookLeaseRepository.leaseIfAvailable(bookId, requestDTO.getLeaseDate(),
+        requestDTO.getReturnDate())).thenReturn(1);
 
     BookLeaseResponseDTO result = bookLeaseService.leaseBook(bookId, requestDTO);
 
-    assertEquals(responseDTO, result);
+    assertEquals(bookId, result.getBookId());
+    assertEquals(requestDTO.getLeaseDate(), result.getLeaseDate());
+    assertEquals(requestDTO.getReturnDate(), result.getReturnDate());
+    verify(bookLeaseRepository, never()).findById(any());
   }
 
   @Test
@@ -202,44 +225,126 @@ class BookLeaseServiceTest {
   @Test
   void returnBookThrowsExceptionWhenBookIsNotLeased() {
     Long bookId = 1L;
-    BookLease bookLease = new BookLease();
 
-    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
+    when(bookLeaseRepository.returnIfLeased(bookId)).thenReturn(0);
+    when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(new BookLease()));
 
     assertThrows(IllegalLeaseStateException.class, () -> bookLeaseService.returnBook(bookId));
+    verify(bookLeaseRepository, times(1)).returnIfLeased(bookId);
   }
 
   @Test
-  void returnBookReturnsBookSuccessfully() {
+  void returnBookRetriesOnceWhenBookWasLeasedConcurrently() {
     Long bookId = 1L;
     BookLease bookLease = new BookLease();
     bookLease.setLeaseDate(LocalDateTime.now());
-    bookLease.setReturnDate(LocalDateTime.now().plusDays(1));
-    BookLeaseResponseDTO responseDTO = new BookLeaseResponseDTO();
 
+    when(bookLeaseRepository.returnIfLeased(bookId)).thenReturn(0, 1);
     when(bookLeaseRepository.findById(bookId)).thenReturn(Optional.of(bookLease));
-    when(bookLeaseRepository.save(any(BookLease.class))).thenReturn(bookLease);
-    when(modelMapper.map(bookLease, BookLeaseResponseDTO.class)).thenReturn(responseDTO);
+
+    assertEquals(bookId, bookLeaseService.returnBook(bookId).getBookId());
+    verify(bookLeaseRepository, times(2)).returnIfLeased(bookId);
+  }
+
+  @Test
+  void returnBookReturnsBookSuccessfully() {
+    Long bookId = 1L;
+
+    when(bookLeaseRepository.returnIfLeased(bookId)).thenReturn(1);
 
     BookLeaseResponseDTO result = bookLeaseService.returnBook(bookId);
 
-    assertEquals(responseDTO, result);
+    assertEquals(bookId, result.getBookId());
+    assertNull(result.getLeaseDate());
+    assertNull(result.getReturnDate());
   }
 
   @Test
-  void getAvailableBooksReturnsAvailableBooks() {
+  void getAvailableBooksReturnsAvailableBooksAfterCursor() {
     BookLease bookLease1 = new BookLease();
     BookLease bookLease2 = new BookLease();
-    BookLeaseResponseDTO responseDTO1 = new BookLeaseResponseDTO();
-    BookLeaseResponseDTO responseDTO2 = new BookLeaseResponseDTO();
 
-    when(bookLeaseRepository.findAvailableBooks()).thenReturn(
-        Arrays.asList(bookLease1, bookLease2));
-    when(modelMapper.map(bookLease1, BookLeaseResponseDTO.class)).thenReturn(responseDTO1);
-    when(modelMapper.map(bookLease2, BookLeaseResponseDTO.class)).thenReturn(responseDTO2);
+    when(bookLeaseRepository.findAvailable(10L, PageRequest.of(0, 2))).thenReturn(
+        new SliceImpl<>(Arrays.asList(bookLease1, bookLease2)));
+
+    List<BookLeaseResponseDTO> result = bookLeaseService.getAvailableBooks(10L, 2).getContent();
+
+    assertEquals(Arrays.asList(BookLeaseResponseDTO.from(bookLease1),
+        BookLeaseResponseDTO.from(bookLease2)), result);
+  }
+
+  @Test
+  void countAvailableBooksCountsWithoutLoadingLeases() {
+    when(bookLeaseRepository.countAvailable()).thenReturn(3L);
+
+    assertEquals(3L, bookLeaseService.countAvailableBooks());
+  }
+
+  @Test
+  void applyUpdatesCreatesMissingLeasesAndDeletesInBatch() {
+    when(bookLeaseRepository.insertMissingLeases(List.of(1L, 2L))).thenReturn(new int[]{0, 1});
+
+    BookLeaseBatchUpdateResponseDTO result = bookLeaseService.applyUpdates(List.of(
+        update(2L, BookUpdateType.CREATED), update(1L, BookUpdateType.CREATED),
+        update(3L, BookUpdateType.DELETED)));
+
+    verify(bookLeaseRepository).deleteAllByIdInBatch(List.of(3L));
+    assertEquals(1, result.getCreated());
+    assertEquals(1, result.getDeleted());
+    assertEquals(List.of(UpdateStatus.CREATED, UpdateStatus.ALREADY_EXISTS, UpdateStatus.DELETED),
+        result.getResults().stream().map(UpdateResult::getStatus).toList());
+  }
 
-    List<BookLeaseResponseDTO> result = bookLeaseService.getAvailableBooks();
+  @Test
+  void applyUpdatesAppliesOnlyLastUpdateOfBook() {
+    BookLeaseBatchUpdateResponseDTO result = bookLeaseService.applyUpdates(List.of(
+        update(1L, BookUpdateType.CREATED), update(1L, BookUpdateType.DELETED)));
+
+    verify(bookLeaseRepository).deleteAllByIdInBatch(List.of(1L));
+    verify(bookLeaseRepository, never()).insertMissingLeases(any());
+    assertEquals(List.of(UpdateStatus.SUPERSEDED, UpdateStatus.DELETED),
+        result.getResults().stream().map(UpdateResult::getStatus).toList());
+  }
+
+  @Test
+  void applyUpdatesThrowsWhenUpdateTypeIsMissing() {
+    assertThrows(BadFieldContentsException.class,
+        () -> bookLeaseService.applyUpdates(List.of(update(1L, null))));
+  }
+
+  @Test
+  void digestBookIdsSplitsIdsIntoRanges() {
+    when(bookLeaseRepository.streamBookIds(0L, 30L)).thenReturn(Stream.of(1L, 5L, 25L));
+
+    List<IdRangeDigestDTO> digests = bookLeaseService.digestBookIds(List.of(0L, 10L, 20L, 30L));
+
+    assertEquals(List.of(2L, 0L, 1L), digests.stream().map(IdRangeDigestDTO::getCount).toList());
+    assertEquals(1L, digests.get(0).getMinId());
+    assertEquals(5L, digests.get(0).getMaxId());
+    assertNull(digests.get(1).getMinId());
+    IdRangeDigestDTO reordered = new IdRangeDigestDTO();
+    reordered.add(5L);
+    reordered.add(1L);
+    assertEquals(reordered, digests.get(0));
+  }
+
+  @Test
+  void digestBookIdsThrowsWhenBoundsAreNotIncreasing() {
+    assertThrows(BadFieldContentsException.class,
+        () -> bookLeaseService.digestBookIds(List.of(10L, 10L)));
+  }
+
+  private static BookLeaseRequestDTO leaseRequest() {
+    BookLeaseRequestDTO requestDTO = new BookLeaseRequestDTO();
+    requestDTO.setLeaseDate(LocalDateTime.now());
+    requestDTO.setReturnDate(LocalDateTime.now().plusDays(1));
+    return requestDTO;
+  }
 
-    assertEquals(Arrays.asList(responseDTO1, responseDTO2), result);
+  private static BookLeaseUpdateRequestDTO update(Long bookId, BookUpdateType updateType) {
+    BookLeaseUpdateRequestDTO update = new BookLeaseUpdateRequestDTO();
+    update.setBookId(bookId);
+    update.setUpdateType(updateType);
+    return update;
   }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.neitex.library.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
@@ -11,6 +15,7 @@ import com.neitex.library.security.JwtService;
 import java.util.Date;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 
 class JwtServiceTest {
 
@@ -20,7 +25,7 @@ class JwtServiceTest {
 
   @BeforeEach
   void setUp() {
-    jwtService = new JwtService("secret");
+    jwtService = new JwtService("secret", 100L, 120000L);
     validToken = JWT.create()
         .withClaim("login", "user")
         .withClaim("role", "ROLE_USER")
@@ -40,6 +45,34 @@ class JwtServiceTest {
     assertEquals("user", userDetails.getUsername());
   }
 
+  @Test
+  void getAuthenticationReturnsNewAuthenticationWithCachedDetailsForRepeatedToken() {
+    UsernamePasswordAuthenticationToken authentication = jwtService.getAuthentication(validToken);
+    UsernamePasswordAuthenticationToken repeated = jwtService.getAuthentication(validToken);
+
+    assertEquals("user", ((GlobalUserDetails) authentication.getPrincipal()).getLogin());
+    assertTrue(authentication.isAuthenticated());
+    assertNotSame(authentication, repeated);
+    assertSame(authentication.getPrincipal(), repeated.getPrincipal());
+  }
+
+  @Test
+  void getAuthenticationIsNotAffectedByChangesToPreviousAuthentication() {
+    UsernamePasswordAuthenticationToken authentication = jwtService.getAuthentication(validToken);
+    authentication.setAuthenticated(false);
+    authentication.setDetails("request details");
+
+    UsernamePasswordAuthenticationToken repeated = jwtService.getAuthentication(validToken);
+
+    assertTrue(repeated.isAuthenticated());
+    assertNull(repeated.getDetails());
+  }
+
+  @Test
+  void getAuthenticationThrowsBadJWTExceptionForInvalidToken() {
+    assertThrows(BadJWTException.class, () -> jwtService.getAuthentication(invalidToken));
+  }
+
   @Test
   void getUserDetailsThrowsBadJWTExceptionForInvalidToken() {
     assertThrows(BadJWTException.class, () -> jwtService.getUserDetails(invalidToken));
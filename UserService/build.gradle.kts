@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.3.4"
 	id("io.spring.dependency-management") version "1.1.6"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.neitex"
@@ -33,6 +34,7 @@ dependencies {
 	implementation("org.modelmapper:modelmapper:3.0.0")
 	implementation("com.auth0:java-jwt:4.4.0")
 	implementation("org.apache.commons:commons-lang3:3.17.0")
+	implementation("com.github.ben-manes.caffeine:caffeine")
 	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	compileOnly("org.projectlombok:lombok")
 	runtimeOnly("org.postgresql:postgresql")
@@ -48,6 +50,12 @@ dependencyManagement {
 	}
 }
 
+jmh {
+	fork = 1
+	warmupIterations = 3
+	iterations = 5
+}
+
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
@@ -0,0 +1,49 @@
+package com.neitex.users.benchmark;
+
+import com.neitex.users.configuration.PasswordConfiguration;
+import com.neitex.users.service.PasswordHashingService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Login throughput (password checks per second) through {@link PasswordHashingService} for
+ * different BCrypt cost factors. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class LoginBenchmark {
+
+  @Param({"8", "10", "12"})
+  private int strength;
+
+  private PasswordHashingService passwordHashingService;
+  private String encodedPassword;
+
+  @Setup
+  public void setUp() {
+    passwordHashingService = new PasswordHashingService(
+        new PasswordConfiguration().passwordEncoder(strength), 0, 1024);
+    encodedPassword = passwordHashingService.encode("password");
+  }
+
+  @TearDown
+  public void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  @Benchmark
+  public boolean login() {
+    return passwordHashingService.matches("password", encodedPassword);
+  }
+}
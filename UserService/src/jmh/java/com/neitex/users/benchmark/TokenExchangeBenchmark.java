@@ -0,0 +1,58 @@
+package com.neitex.users.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.neitex.users.dto.UserSecurityDTO;
+import com.neitex.users.model.UserRole;
+import com.neitex.users.service.JwtService;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares validating a user token the old way (building a verifier and verifying the token twice)
+ * with decoding it once through {@link JwtService}. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenExchangeBenchmark {
+
+  private static final String SECRET = "benchmarkSecret";
+
+  private JwtService jwtService;
+  private Algorithm algorithm;
+  private UserSecurityDTO user;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    jwtService = new JwtService(SECRET, 3600000L, 120000L);
+    algorithm = Algorithm.HMAC256(SECRET);
+    user = new UserSecurityDTO(1L, "login", "name", UserRole.VIEWER, "salt");
+    token = JWT.create().withSubject("1")
+        .withExpiresAt(new Date(System.currentTimeMillis() + 3600000L)).withAudience("bookstore")
+        .withClaim("login", "login").withClaim("s", "salt").sign(algorithm);
+  }
+
+  @Benchmark
+  public boolean verifyTwiceWithNewVerifiers() {
+    Long id = Long.parseLong(JWT.require(algorithm).build().verify(token).getSubject());
+    JWT.require(algorithm).withSubject(id.toString()).withClaim("s", user.tokenSalt())
+        .withAudience("bookstore").build().verify(token);
+    return true;
+  }
+
+  @Benchmark
+  public boolean decodeOnce() {
+    DecodedJWT decoded = jwtService.decodeAuthToken(token).orElseThrow();
+    return jwtService.getUserId(decoded) != null && jwtService.verifyAuthToken(decoded, user);
+  }
+}
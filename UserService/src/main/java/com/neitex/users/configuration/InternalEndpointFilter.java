@@ -0,0 +1,40 @@
+package com.neitex.users.configuration;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.NonNull;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Token validation endpoints expose every user's token salt and are meant for the gateway alone.
+ * They are not routed by the gateway, and requests that were proxied anyway, recognisable by the
+ * forwarding headers every proxy adds, are rejected.
+ */
+@Component
+public class InternalEndpointFilter extends OncePerRequestFilter {
+
+  private static final String INTERNAL_PATH_PREFIX = "/validation/";
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+    return !request.getRequestURI().startsWith(INTERNAL_PATH_PREFIX);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain
+  ) throws ServletException, IOException {
+    if (request.getHeader("Forwarded") != null || request.getHeader("X-Forwarded-For") != null) {
+      response.sendError(HttpStatus.FORBIDDEN.value(), "Internal endpoint");
+      return;
+    }
+    filterChain.doFilter(request, response);
+  }
+}
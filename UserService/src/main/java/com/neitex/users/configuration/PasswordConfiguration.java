@@ -1,14 +1,28 @@
 package com.neitex.users.configuration;
 
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordConfiguration {
+
+  /**
+   * New hashes are stored as {@code {bcrypt}...} with the configured cost. Hashes without an
+   * encoder prefix (created before the prefix was introduced) are still matched as BCrypt, and are
+   * reported as needing an upgrade, as are BCrypt hashes with a lower cost.
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${users.password.bcrypt-strength:10}") Integer strength) {
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+    DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+        Map.of("bcrypt", bcrypt));
+    encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return encoder;
   }
 }
@@ -2,6 +2,7 @@ package com.neitex.users.controller;
 
 import com.neitex.users.dto.JwtDTO;
 import com.neitex.users.dto.LoginRequestDTO;
+import com.neitex.users.service.LoginAttemptGuard;
 import com.neitex.users.service.UserService;
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,9 +15,13 @@ import org.springframework.web.bind.annotation.RestController;
 @AllArgsConstructor
 public class AuthController {
   private final UserService userService;
+  private final LoginAttemptGuard loginAttemptGuard;
 
   @PostMapping("/login")
   public JwtDTO login(@RequestBody LoginRequestDTO loginRequestDTO) {
-    return new JwtDTO(userService.issueAuthToken(loginRequestDTO.getLogin(), loginRequestDTO.getPassword()));
+    String login = loginRequestDTO.getLogin();
+    String password = loginRequestDTO.getPassword();
+    return new JwtDTO(loginAttemptGuard.login(login, password,
+        () -> userService.issueAuthToken(login, password)));
   }
 }
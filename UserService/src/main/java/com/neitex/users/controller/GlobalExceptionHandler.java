@@ -3,6 +3,8 @@ package com.neitex.users.controller;
 import com.neitex.users.exception.BadLoginCredentials;
 import com.neitex.users.exception.MissingFieldException;
 import com.neitex.users.exception.NoSuchUserException;
+import com.neitex.users.exception.PasswordHashingOverloadedException;
+import com.neitex.users.exception.TooManyLoginAttemptsException;
 import com.neitex.users.exception.UsernameTakenException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -36,6 +38,20 @@ public class GlobalExceptionHandler {
     return new ErrorMessage("Bad username or login", e.getMessage(), HttpStatus.UNAUTHORIZED);
   }
 
+  @ExceptionHandler(PasswordHashingOverloadedException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public ErrorMessage handlePasswordHashingOverloadedException(
+      PasswordHashingOverloadedException e) {
+    return new ErrorMessage("Service overloaded", e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
+  @ExceptionHandler(TooManyLoginAttemptsException.class)
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  public ErrorMessage handleTooManyLoginAttemptsException(TooManyLoginAttemptsException e) {
+    return new ErrorMessage("Too many login attempts", e.getMessage(),
+        HttpStatus.TOO_MANY_REQUESTS);
+  }
+
   public record ErrorMessage(String error, String message, HttpStatus status) {
 
   }
@@ -1,11 +1,15 @@
 package com.neitex.users.controller;
 
 import com.neitex.users.dto.JwtDTO;
+import com.neitex.users.dto.UserSecurityDTO;
 import com.neitex.users.service.UserService;
+import java.util.List;
 import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -18,4 +22,17 @@ public class TokenValidationController {
   public JwtDTO validateToken(@RequestBody JwtDTO token) {
     return new JwtDTO(userService.exchangeTokenToUserInfo(token.getToken()).orElse(null));
   }
+
+  @PostMapping("/validate-batch")
+  public List<JwtDTO> validateTokens(@RequestBody List<JwtDTO> tokens) {
+    return userService.exchangeTokensToUserInfo(tokens.stream().map(JwtDTO::getToken).toList())
+        .stream().map(JwtDTO::new).toList();
+  }
+
+  @GetMapping("/snapshot")
+  public List<UserSecurityDTO> getSecuritySnapshot(
+      @RequestParam(name = "after", defaultValue = "0") Long after,
+      @RequestParam(name = "size", defaultValue = "1000") Integer size) {
+    return userService.getSecuritySnapshot(after, size);
+  }
 }
@@ -1,5 +1,6 @@
 package com.neitex.users.dto;
 
+import com.neitex.users.model.User;
 import com.neitex.users.model.UserRole;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,4 +16,13 @@ public class UserResponseDTO {
   private String login;
   @NonNull
   private UserRole role;
+
+  public static UserResponseDTO from(User user) {
+    UserResponseDTO dto = new UserResponseDTO();
+    dto.id = user.getId();
+    dto.name = user.getName();
+    dto.login = user.getLogin();
+    dto.role = user.getRole();
+    return dto;
+  }
 }
@@ -0,0 +1,17 @@
+package com.neitex.users.dto;
+
+import com.neitex.users.model.User;
+import com.neitex.users.model.UserRole;
+
+/**
+ * Per-user data needed to verify an auth token and issue a user-data token without a database
+ * lookup.
+ */
+public record UserSecurityDTO(Long id, String login, String name, UserRole role,
+                              String tokenSalt) {
+
+  public static UserSecurityDTO from(User user) {
+    return new UserSecurityDTO(user.getId(), user.getLogin(), user.getName(), user.getRole(),
+        user.getTokenSalt());
+  }
+}
@@ -0,0 +1,11 @@
+package com.neitex.users.exception;
+
+/**
+ * Exception thrown when the password hashing queue is full and the request can't be served in time.
+ */
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+  public PasswordHashingOverloadedException(String message) {
+    super(message);
+  }
+}
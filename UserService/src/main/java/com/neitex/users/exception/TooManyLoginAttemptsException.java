@@ -0,0 +1,11 @@
+package com.neitex.users.exception;
+
+/**
+ * Exception thrown when a login is attempted more often than the per-login rate limit allows.
+ */
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+  public TooManyLoginAttemptsException(String message) {
+    super(message);
+  }
+}
@@ -1,11 +1,39 @@
 package com.neitex.users.repository;
 
+import com.neitex.users.dto.UserSecurityDTO;
 import com.neitex.users.model.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByLogin(String login);
+
+  /**
+   * @return 1 if the password hash was still {@code oldHash} and is now replaced, 0 otherwise
+   */
+  @Modifying
+  @Query("update User u set u.encryptedPassword = :newHash"
+      + " where u.id = :id and u.encryptedPassword = :oldHash")
+  int replaceEncryptedPassword(@Param("id") Long id, @Param("oldHash") String oldHash,
+      @Param("newHash") String newHash);
+
+  @Query("select new com.neitex.users.dto.UserSecurityDTO(u.id, u.login, u.name, u.role, "
+      + "u.tokenSalt) from User u where u.id > :after order by u.id")
+  List<UserSecurityDTO> findSecuritySnapshot(@Param("after") Long after, Pageable pageable);
+
+  @Query("select new com.neitex.users.dto.UserSecurityDTO(u.id, u.login, u.name, u.role, "
+      + "u.tokenSalt) from User u where u.id = :id")
+  Optional<UserSecurityDTO> findSecurityById(@Param("id") Long id);
+
+  @Query("select new com.neitex.users.dto.UserSecurityDTO(u.id, u.login, u.name, u.role, "
+      + "u.tokenSalt) from User u where u.id in :ids")
+  List<UserSecurityDTO> findSecurityByIdIn(@Param("ids") Collection<? extends Long> ids);
 }
@@ -1,9 +1,13 @@
 package com.neitex.users.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.neitex.users.dto.UserSecurityDTO;
 import com.neitex.users.model.User;
 import java.util.Date;
+import java.util.Optional;
 import lombok.NonNull;
 import org.apache.commons.lang.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,6 +27,11 @@ public class JwtService {
   private final Long applicationTokenExpiration;
 
   private final Algorithm algorithm;
+  /**
+   * Verifiers are immutable and thread-safe, so they are built once instead of on every call
+   */
+  private final JWTVerifier verifier;
+  private final JWTVerifier authTokenVerifier;
 
   public JwtService(@Value("${jwt.secret}") String secret,
       @Value("${jwt.expiration.user}") Long userTokenExpiration,
@@ -30,6 +39,8 @@ public class JwtService {
     this.userTokenExpiration = userTokenExpiration;
     this.applicationTokenExpiration = applicationTokenExpiration;
     this.algorithm = Algorithm.HMAC256(secret);
+    this.verifier = JWT.require(algorithm).build();
+    this.authTokenVerifier = JWT.require(algorithm).withAudience("bookstore").build();
   }
 
   public String issueAuthToken(@NonNull User user) {
@@ -40,30 +51,63 @@ public class JwtService {
   }
 
   public boolean verifyAuthToken(@NonNull String token, @NonNull User user) {
+    return verifyAuthToken(token, UserSecurityDTO.from(user));
+  }
+
+  public boolean verifyAuthToken(@NonNull String token, @NonNull UserSecurityDTO user) {
+    return decodeAuthToken(token).map(jwt -> verifyAuthToken(jwt, user)).orElse(false);
+  }
+
+  /**
+   * Checks the claims of a token already verified by {@link #decodeAuthToken(String)} against the
+   * user it was issued to, without verifying the signature again.
+   */
+  public boolean verifyAuthToken(@NonNull DecodedJWT token, @NonNull UserSecurityDTO user) {
+    String salt = token.getClaim("s").asString();
+    return user.id().toString().equals(token.getSubject())
+        && salt != null && salt.equals(user.tokenSalt());
+  }
+
+  /**
+   * Verifies signature, expiration and audience of a user-facing token.
+   *
+   * @return decoded token, or empty if it is not valid
+   */
+  public Optional<DecodedJWT> decodeAuthToken(@NonNull String token) {
     try {
-      JWT.require(algorithm).withSubject(user.getId().toString())
-          .withClaim("s", user.getTokenSalt()).withAudience("bookstore").build().verify(token);
-      return true;
+      return Optional.of(authTokenVerifier.verify(token));
     } catch (Exception e) {
-      return false;
+      return Optional.empty();
     }
   }
 
   public String issueUserDataToken(@NonNull User user) {
-    return JWT.create().withSubject(user.getId().toString())
+    return issueUserDataToken(UserSecurityDTO.from(user));
+  }
+
+  public String issueUserDataToken(@NonNull UserSecurityDTO user) {
+    return JWT.create().withSubject(user.id().toString())
         .withExpiresAt(new Date(System.currentTimeMillis() + applicationTokenExpiration))
-        .withAudience("bookstore").withClaim("login", user.getLogin())
-        .withClaim("name", user.getName()).withClaim("role", user.getRole().name()).sign(algorithm);
+        .withAudience("bookstore").withClaim("login", user.login())
+        .withClaim("name", user.name()).withClaim("role", user.role().name()).sign(algorithm);
   }
 
   public Long getUserIdFromToken(@NonNull String token) {
     try {
-      return Long.parseLong(JWT.require(algorithm).build().verify(token).getSubject());
+      return getUserId(verifier.verify(token));
     } catch (Exception e) {
       return null;
     }
   }
 
+  public Long getUserId(@NonNull DecodedJWT token) {
+    try {
+      return Long.parseLong(token.getSubject());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
   public static String generateTokenSalt() {
     return RandomStringUtils.randomAlphanumeric(16);
   }
@@ -0,0 +1,137 @@
+package com.neitex.users.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neitex.users.exception.BadLoginCredentials;
+import com.neitex.users.exception.TooManyLoginAttemptsException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Protects password checks from repeated login attempts:
+ * <ul>
+ *   <li>credentials that recently failed are rejected again without hashing;</li>
+ *   <li>identical attempts arriving while one is being checked wait for its result;</li>
+ *   <li>every login has a token bucket limiting how often its password is actually checked.</li>
+ * </ul>
+ * Attempts are keyed by login and SHA-256 of the password, so raw passwords are never kept.
+ */
+@Component
+public class LoginAttemptGuard {
+
+  private static final char KEY_SEPARATOR = '\0';
+
+  private final Cache<String, Boolean> failedAttempts;
+  private final Cache<String, TokenBucket> buckets;
+  private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+  private final Integer bucketCapacity;
+  private final Long refillInterval;
+
+  public LoginAttemptGuard(
+      @Value("${users.login.attempts.capacity:10}") Integer bucketCapacity,
+      @Value("${users.login.attempts.refill-interval:6000}") Long refillInterval,
+      @Value("${users.login.failed-attempt-ttl:10000}") Long failedAttemptTtl,
+      @Value("${users.login.max-tracked-logins:100000}") Long maxTrackedLogins) {
+    this.bucketCapacity = bucketCapacity;
+    this.refillInterval = refillInterval;
+    this.failedAttempts = Caffeine.newBuilder().maximumSize(maxTrackedLogins)
+        .expireAfterWrite(Duration.ofMillis(failedAttemptTtl)).build();
+    // an idle bucket refills completely after capacity * refillInterval, so it can be dropped
+    this.buckets = Caffeine.newBuilder().maximumSize(maxTrackedLogins)
+        .expireAfterAccess(Duration.ofMillis(bucketCapacity * refillInterval)).build();
+  }
+
+  /**
+   * Runs {@code attempt} for the given credentials unless they are known to be bad or the login
+   * is rate limited.
+   *
+   * @throws BadLoginCredentials           if the same credentials recently failed
+   * @throws TooManyLoginAttemptsException if the login has no attempts left
+   */
+  public String login(@NonNull String login, @NonNull String password,
+      @NonNull Supplier<String> attempt) {
+    String key = login + KEY_SEPARATOR + sha256(password);
+    if (failedAttempts.getIfPresent(key) != null) {
+      throw new BadLoginCredentials("Invalid login or password");
+    }
+    CompletableFuture<String> result = new CompletableFuture<>();
+    CompletableFuture<String> existing = inFlight.putIfAbsent(key, result);
+    if (existing != null) {
+      return await(existing);
+    }
+    try {
+      if (!buckets.get(login, ignored -> new TokenBucket()).tryConsume()) {
+        throw new TooManyLoginAttemptsException("Too many login attempts, try again later");
+      }
+      String token = attempt.get();
+      result.complete(token);
+      return token;
+    } catch (BadLoginCredentials e) {
+      failedAttempts.put(key, Boolean.TRUE);
+      result.completeExceptionally(e);
+      throw e;
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(key, result);
+    }
+  }
+
+  /**
+   * Forgets failed attempts for the login, e.g. because its password was changed.
+   */
+  public void invalidate(@NonNull String login) {
+    String prefix = login + KEY_SEPARATOR;
+    failedAttempts.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+  }
+
+  private static String await(CompletableFuture<String> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw e;
+    }
+  }
+
+  private static String sha256(String password) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+          .digest(password.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private class TokenBucket {
+
+    private double tokens = bucketCapacity;
+    private long lastRefill = System.nanoTime();
+
+    synchronized boolean tryConsume() {
+      long now = System.nanoTime();
+      tokens = Math.min(bucketCapacity,
+          tokens + (now - lastRefill) / (refillInterval * 1_000_000.0));
+      lastRefill = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens--;
+      return true;
+    }
+  }
+}
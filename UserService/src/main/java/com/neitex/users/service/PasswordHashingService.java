@@ -0,0 +1,79 @@
+package com.neitex.users.service;
+
+import com.neitex.users.exception.PasswordHashingOverloadedException;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs password hashing on a dedicated, bounded pool. Hashing is deliberately slow, so instead of
+ * letting a login storm occupy every request thread, requests that don't fit into the queue fail
+ * fast with {@link PasswordHashingOverloadedException}.
+ */
+@Service
+public class PasswordHashingService {
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+
+  public PasswordHashingService(PasswordEncoder passwordEncoder,
+      @Value("${users.password.hashing.threads:0}") Integer threads,
+      @Value("${users.password.hashing.queue-capacity:64}") Integer queueCapacity) {
+    this.passwordEncoder = passwordEncoder;
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+          Thread thread = new Thread(runnable,
+              "password-hashing-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public String encode(@NonNull String rawPassword) {
+    return submit(() -> passwordEncoder.encode(rawPassword));
+  }
+
+  public boolean matches(@NonNull String rawPassword, @NonNull String encodedPassword) {
+    return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Whether the hash was made with an outdated encoder or cost. Does not hash anything, so it runs
+   * on the caller's thread.
+   */
+  public boolean upgradeEncoding(@NonNull String encodedPassword) {
+    return passwordEncoder.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> T submit(Callable<T> task) {
+    try {
+      return executor.submit(task).get();
+    } catch (RejectedExecutionException e) {
+      throw new PasswordHashingOverloadedException("Too many login requests, try again later");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,69 @@
+package com.neitex.users.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neitex.users.dto.UserSecurityDTO;
+import com.neitex.users.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of {@link UserSecurityDTO} by user ID, so token exchange does not touch the database.
+ * Entries are invalidated locally on every user update or removal; the TTL bounds how long other
+ * UserService instances may keep serving a rotated salt or changed role.
+ */
+@Component
+public class UserSecurityCache {
+
+  private final UserRepository userRepository;
+  private final Cache<Long, UserSecurityDTO> cache;
+
+  public UserSecurityCache(UserRepository userRepository, MeterRegistry meterRegistry,
+      @Value("${users.security-cache.max-size:100000}") Long maxSize,
+      @Value("${users.security-cache.ttl:60000}") Long ttl) {
+    this.userRepository = userRepository;
+    this.cache = Caffeine.newBuilder().maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(ttl)).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "userSecurity");
+  }
+
+  public Optional<UserSecurityDTO> get(Long id) {
+    return Optional.ofNullable(
+        cache.get(id, key -> userRepository.findSecurityById(key).orElse(null)));
+  }
+
+  /**
+   * Returns cached entries for {@code ids}, loading all missing ones with a single query. Users
+   * that do not exist are absent from the result.
+   */
+  public Map<Long, UserSecurityDTO> getAll(Collection<Long> ids) {
+    return cache.getAll(ids, missing -> userRepository.findSecurityByIdIn(missing).stream()
+        .collect(Collectors.toMap(UserSecurityDTO::id, Function.identity())));
+  }
+
+  /**
+   * Drops the user's entry now and, if called within a transaction, once more after it commits so
+   * a concurrent reader can't re-cache the pre-commit row.
+   */
+  public void invalidate(Long id) {
+    cache.invalidate(id);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          cache.invalidate(id);
+        }
+      });
+    }
+  }
+}
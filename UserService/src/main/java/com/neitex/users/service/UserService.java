@@ -1,21 +1,27 @@
 package com.neitex.users.service;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.neitex.users.dto.UserRequestDTO;
 import com.neitex.users.dto.UserResponseDTO;
+import com.neitex.users.dto.UserSecurityDTO;
 import com.neitex.users.exception.BadLoginCredentials;
 import com.neitex.users.exception.NoSuchUserException;
 import com.neitex.users.exception.UsernameTakenException;
 import com.neitex.users.model.User;
 import com.neitex.users.repository.UserRepository;
 import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import org.modelmapper.ModelMapper;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -23,19 +29,23 @@ import org.springframework.stereotype.Service;
 @Transactional
 public class UserService {
 
+  public static final int MAX_SNAPSHOT_PAGE_SIZE = 5000;
+
   private final UserRepository userRepository;
-  private final PasswordEncoder passwordEncoder;
+  private final PasswordHashingService passwordHashingService;
   private final ModelMapper modelMapper;
   private final JwtService jwtService;
+  private final UserSecurityCache userSecurityCache;
+  private final LoginAttemptGuard loginAttemptGuard;
 
   public UserResponseDTO getUserById(@NonNull Long id) {
-    return userRepository.findById(id).map(user -> modelMapper.map(user, UserResponseDTO.class))
+    return userRepository.findById(id).map(UserResponseDTO::from)
         .orElseThrow(() -> new NoSuchUserException("User not found"));
   }
 
   public UserResponseDTO getUserByLogin(@NonNull String login) {
     return userRepository.findByLogin(login)
-        .map(user -> modelMapper.map(user, UserResponseDTO.class))
+        .map(UserResponseDTO::from)
         .orElseThrow(() -> new NoSuchUserException("User not found"));
   }
 
@@ -47,19 +57,21 @@ public class UserService {
     if (userRepository.findByLogin(userRequestDTO.getLogin()).isPresent()) {
       throw new UsernameTakenException("User with such login already exists");
     }
-    user.setEncryptedPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
+    user.setEncryptedPassword(passwordHashingService.encode(userRequestDTO.getPassword()));
     user.setTokenSalt(JwtService.generateTokenSalt());
-    return modelMapper.map(userRepository.save(user), UserResponseDTO.class);
+    return UserResponseDTO.from(userRepository.save(user));
   }
 
   public void deleteUser(@NonNull Long id) {
     userRepository.deleteById(id);
+    userSecurityCache.invalidate(id);
   }
 
 
   public UserResponseDTO updateUser(@NonNull Long id, @NonNull UserRequestDTO userRequestDTO) {
     User user = userRepository.findById(id)
         .orElseThrow(() -> new NoSuchElementException("User not found"));
+    String previousLogin = user.getLogin();
     if (userRequestDTO.getLogin() != null) {
       if (userRepository.findByLogin(userRequestDTO.getLogin()).isPresent()) {
         throw new UsernameTakenException("User with such login already exists");
@@ -67,7 +79,7 @@ public class UserService {
       user.setLogin(userRequestDTO.getLogin());
     }
     if (userRequestDTO.getPassword() != null) {
-      user.setEncryptedPassword(passwordEncoder.encode(userRequestDTO.getPassword()));
+      user.setEncryptedPassword(passwordHashingService.encode(userRequestDTO.getPassword()));
       user.setTokenSalt(JwtService.generateTokenSalt());
     }
     if (userRequestDTO.getName() != null) {
@@ -76,33 +88,89 @@ public class UserService {
     if (userRequestDTO.getRole() != null) {
       user.setRole(userRequestDTO.getRole());
     }
-    return modelMapper.map(userRepository.save(user), UserResponseDTO.class);
+    User saved = userRepository.save(user);
+    userSecurityCache.invalidate(id);
+    if (previousLogin != null
+        && (userRequestDTO.getPassword() != null || userRequestDTO.getLogin() != null)) {
+      // failed attempts memoized for the old credentials may now be valid
+      loginAttemptGuard.invalidate(previousLogin);
+    }
+    return UserResponseDTO.from(saved);
   }
 
   public List<UserResponseDTO> getAllUsers() {
     return userRepository.findAll().stream()
-        .map(user -> modelMapper.map(user, UserResponseDTO.class)).toList();
+        .map(UserResponseDTO::from).toList();
   }
 
   public String issueAuthToken(@NonNull String login, @NonNull String password) {
     User user = userRepository.findByLogin(login)
         .orElseThrow(() -> new BadLoginCredentials("Invalid login or password"));
-    if (passwordEncoder.matches(password, user.getEncryptedPassword())) {
-      return jwtService.issueAuthToken(user);
-    } else {
+    if (!passwordHashingService.matches(password, user.getEncryptedPassword())) {
       throw new BadLoginCredentials("Invalid login or password");
     }
+    if (passwordHashingService.upgradeEncoding(user.getEncryptedPassword())) {
+      // the password didn't change, so the token salt is kept and issued tokens stay valid.
+      // Only the hash we verified is replaced: if the password was changed concurrently, the
+      // update matches nothing and the new password is kept
+      userRepository.replaceEncryptedPassword(user.getId(), user.getEncryptedPassword(),
+          passwordHashingService.encode(password));
+    }
+    return jwtService.issueAuthToken(user);
   }
 
+  /**
+   * Runs without a transaction: user data comes from {@link UserSecurityCache}, so a cache hit
+   * needs no database connection at all.
+   */
+  @Transactional(TxType.SUPPORTS)
   public Optional<String> exchangeTokenToUserInfo(@NonNull String token) {
-    Long id = jwtService.getUserIdFromToken(token);
+    Optional<DecodedJWT> decoded = jwtService.decodeAuthToken(token);
+    Long id = decoded.map(jwtService::getUserId).orElse(null);
     if (id == null) {
       return Optional.empty();
     }
-    Optional<User> user = userRepository.findById(id);
-    if (user.isEmpty() || !jwtService.verifyAuthToken(token, user.get())) {
+    Optional<UserSecurityDTO> user = userSecurityCache.get(id);
+    if (user.isEmpty() || !jwtService.verifyAuthToken(decoded.get(), user.get())) {
       return Optional.empty();
     }
     return Optional.of(jwtService.issueUserDataToken(user.get()));
   }
+
+  /**
+   * Batch version of {@link #exchangeTokenToUserInfo(String)}: users missing from the cache are
+   * loaded with one query. The result has the same order as {@code tokens}, with {@code null} in
+   * place of every token that failed validation.
+   */
+  @Transactional(TxType.SUPPORTS)
+  public List<String> exchangeTokensToUserInfo(@NonNull List<String> tokens) {
+    List<DecodedJWT> decoded = tokens.stream()
+        .map(token -> token == null ? null : jwtService.decodeAuthToken(token).orElse(null))
+        .toList();
+    List<Long> ids = decoded.stream()
+        .map(token -> token == null ? null : jwtService.getUserId(token)).toList();
+    Map<Long, UserSecurityDTO> users = userSecurityCache.getAll(
+        ids.stream().filter(Objects::nonNull).collect(Collectors.toSet()));
+    List<String> result = new ArrayList<>(tokens.size());
+    for (int i = 0; i < tokens.size(); i++) {
+      UserSecurityDTO user = ids.get(i) == null ? null : users.get(ids.get(i));
+      if (user == null || !jwtService.verifyAuthToken(decoded.get(i), user)) {
+        result.add(null);
+      } else {
+        result.add(jwtService.issueUserDataToken(user));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * A page of the security data of all users, ordered by ID.
+   *
+   * @param after ID of the last user of the previous page
+   * @param size  requested page size, clamped to {@code [1, MAX_SNAPSHOT_PAGE_SIZE]}
+   */
+  public List<UserSecurityDTO> getSecuritySnapshot(Long after, Integer size) {
+    return userRepository.findSecuritySnapshot(after,
+        PageRequest.of(0, Math.max(1, Math.min(size, MAX_SNAPSHOT_PAGE_SIZE))));
+  }
 }
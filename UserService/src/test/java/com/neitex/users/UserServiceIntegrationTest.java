@@ -33,6 +33,42 @@ public class UserServiceIntegrationTest {
   @Autowired
   private ObjectMapper objectMapper;
 
+  @Test
+  public void testSecuritySnapshotIsPagedById() throws Exception {
+    UserResponseDTO first = createUser("testSnapshotFirst");
+    UserResponseDTO second = createUser("testSnapshotSecond");
+    mockMvc.perform(MockMvcRequestBuilders.get("/validation/snapshot")
+            .param("after", String.valueOf(first.getId() - 1)).param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()", equalTo(1)))
+        .andExpect(jsonPath("$[0].login", equalTo("testSnapshotFirst")));
+    mockMvc.perform(MockMvcRequestBuilders.get("/validation/snapshot")
+            .param("after", String.valueOf(first.getId())).param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id", equalTo(second.getId().intValue())));
+  }
+
+  @Test
+  public void testValidationEndpointsRejectProxiedRequests() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/validation/snapshot")
+            .header("X-Forwarded-For", "203.0.113.7"))
+        .andExpect(status().isForbidden());
+    mockMvc.perform(MockMvcRequestBuilders.post("/validation/validate")
+            .header("Forwarded", "for=203.0.113.7")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"token\": \"token\"}"))
+        .andExpect(status().isForbidden());
+  }
+
+  private UserResponseDTO createUser(String login) {
+    UserRequestDTO requestDTO = new UserRequestDTO();
+    requestDTO.setName("Test User");
+    requestDTO.setRole(UserRole.VIEWER);
+    requestDTO.setLogin(login);
+    requestDTO.setPassword("password");
+    return userService.createUser(requestDTO);
+  }
+
   @Test
   public void testGetAllUsers() throws Exception {
     mockMvc.perform(MockMvcRequestBuilders.get("/users/all"))
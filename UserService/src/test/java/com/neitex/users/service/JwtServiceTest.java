@@ -8,6 +8,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.neitex.users.dto.UserSecurityDTO;
 import com.neitex.users.model.User;
 import com.neitex.users.model.UserRole;
 import org.junit.jupiter.api.BeforeEach;
@@ -57,6 +59,41 @@ class JwtServiceTest {
     assertFalse(jwtService.verifyAuthToken(invalidToken, user));
   }
 
+  @Test
+  void verifyDecodedAuthTokenChecksSubjectAndSalt() {
+    when(user.getId()).thenReturn(1L);
+    when(user.getLogin()).thenReturn("testLogin");
+    when(user.getTokenSalt()).thenReturn("testSalt");
+
+    DecodedJWT token = jwtService.decodeAuthToken(jwtService.issueAuthToken(user)).orElseThrow();
+
+    assertEquals(1L, jwtService.getUserId(token));
+    assertTrue(jwtService.verifyAuthToken(token,
+        new UserSecurityDTO(1L, "testLogin", null, null, "testSalt")));
+    assertFalse(jwtService.verifyAuthToken(token,
+        new UserSecurityDTO(1L, "testLogin", null, null, "rotatedSalt")));
+    assertFalse(jwtService.verifyAuthToken(token,
+        new UserSecurityDTO(2L, "testLogin", null, null, "testSalt")));
+  }
+
+  @Test
+  void verifyDecodedAuthTokenRejectsMissingSalt() {
+    when(user.getId()).thenReturn(1L);
+    when(user.getLogin()).thenReturn("testLogin");
+
+    DecodedJWT token = jwtService.decodeAuthToken(jwtService.issueAuthToken(user)).orElseThrow();
+
+    assertFalse(jwtService.verifyAuthToken(token,
+        new UserSecurityDTO(1L, "testLogin", null, null, null)));
+    assertFalse(jwtService.verifyAuthToken(token,
+        new UserSecurityDTO(1L, "testLogin", null, null, "testSalt")));
+  }
+
+  @Test
+  void decodeAuthTokenReturnsEmptyForInvalidToken() {
+    assertTrue(jwtService.decodeAuthToken("invalidToken").isEmpty());
+  }
+
   @Test
   void issueUserDataTokenReturnsValidToken() {
     when(user.getId()).thenReturn(1L);
@@ -0,0 +1,107 @@
+package com.neitex.users.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.neitex.users.exception.BadLoginCredentials;
+import com.neitex.users.exception.TooManyLoginAttemptsException;
+import java.lang.Thread.State;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LoginAttemptGuardTest {
+
+  private LoginAttemptGuard loginAttemptGuard;
+  private AtomicInteger attempts;
+
+  @BeforeEach
+  void setUp() {
+    loginAttemptGuard = new LoginAttemptGuard(3, 60000L, 60000L, 100L);
+    attempts = new AtomicInteger();
+  }
+
+  private String failingAttempt() {
+    attempts.incrementAndGet();
+    throw new BadLoginCredentials("Invalid login or password");
+  }
+
+  private String successfulAttempt() {
+    attempts.incrementAndGet();
+    return "token";
+  }
+
+  @Test
+  void repeatedBadCredentialsAreRejectedWithoutCheckingAgain() {
+    assertThrows(BadLoginCredentials.class,
+        () -> loginAttemptGuard.login("login", "wrong", this::failingAttempt));
+    assertThrows(BadLoginCredentials.class,
+        () -> loginAttemptGuard.login("login", "wrong", this::failingAttempt));
+
+    assertEquals(1, attempts.get());
+    assertEquals("token", loginAttemptGuard.login("login", "right", this::successfulAttempt));
+  }
+
+  @Test
+  void invalidateForgetsFailedAttempts() {
+    assertThrows(BadLoginCredentials.class,
+        () -> loginAttemptGuard.login("login", "password", this::failingAttempt));
+
+    loginAttemptGuard.invalidate("login");
+
+    assertEquals("token", loginAttemptGuard.login("login", "password", this::successfulAttempt));
+  }
+
+  @Test
+  void loginIsRateLimitedAfterBucketIsEmpty() {
+    for (int i = 0; i < 3; i++) {
+      assertEquals("token", loginAttemptGuard.login("login", "password", this::successfulAttempt));
+    }
+
+    assertThrows(TooManyLoginAttemptsException.class,
+        () -> loginAttemptGuard.login("login", "password", this::successfulAttempt));
+    assertEquals("token", loginAttemptGuard.login("other", "password", this::successfulAttempt));
+  }
+
+  @Test
+  void concurrentIdenticalAttemptsShareResult() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(
+        () -> loginAttemptGuard.login("login", "password", () -> {
+          started.countDown();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          return successfulAttempt();
+        }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    FutureTask<String> second = new FutureTask<>(
+        () -> loginAttemptGuard.login("login", "password", this::successfulAttempt));
+    Thread secondThread = new Thread(second);
+    secondThread.start();
+
+    // the first attempt is held until the second one is parked waiting for its result
+    awaitParked(secondThread);
+    release.countDown();
+
+    assertEquals("token", first.get(5, TimeUnit.SECONDS));
+    assertEquals("token", second.get(5, TimeUnit.SECONDS));
+    assertEquals(1, attempts.get());
+  }
+
+  private static void awaitParked(Thread thread) {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (thread.getState() != State.WAITING && thread.getState() != State.TERMINATED) {
+      assertTrue(System.nanoTime() < deadline, "Thread didn't block in time");
+      Thread.onSpinWait();
+    }
+  }
+}
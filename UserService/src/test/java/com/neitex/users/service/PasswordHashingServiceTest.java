@@ -0,0 +1,52 @@
+package com.neitex.users.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.neitex.users.configuration.PasswordConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class PasswordHashingServiceTest {
+
+  private PasswordHashingService passwordHashingService;
+
+  @BeforeEach
+  void setUp() {
+    passwordHashingService = new PasswordHashingService(
+        new PasswordConfiguration().passwordEncoder(5), 1, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  @Test
+  void encodedPasswordMatchesAndIsUpToDate() {
+    String encoded = passwordHashingService.encode("password");
+
+    assertTrue(encoded.startsWith("{bcrypt}"));
+    assertTrue(passwordHashingService.matches("password", encoded));
+    assertFalse(passwordHashingService.matches("wrongPassword", encoded));
+    assertFalse(passwordHashingService.upgradeEncoding(encoded));
+  }
+
+  @Test
+  void legacyHashMatchesAndNeedsUpgrade() {
+    String legacy = new BCryptPasswordEncoder(4).encode("password");
+
+    assertTrue(passwordHashingService.matches("password", legacy));
+    assertTrue(passwordHashingService.upgradeEncoding(legacy));
+  }
+
+  @Test
+  void lowerCostHashNeedsUpgrade() {
+    String weaker = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("password");
+
+    assertTrue(passwordHashingService.matches("password", weaker));
+    assertTrue(passwordHashingService.upgradeEncoding(weaker));
+  }
+}
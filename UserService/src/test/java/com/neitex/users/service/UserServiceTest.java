@@ -3,47 +3,59 @@ package com.neitex.users.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.neitex.users.dto.UserRequestDTO;
 import com.neitex.users.dto.UserResponseDTO;
+import com.neitex.users.dto.UserSecurityDTO;
 import com.neitex.users.exception.BadLoginCredentials;
 import com.neitex.users.exception.NoSuchUserException;
 import com.neitex.users.exception.UsernameTakenException;
 import com.neitex.users.model.User;
 import com.neitex.users.model.UserRole;
 import com.neitex.users.repository.UserRepository;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 class UserServiceTest {
 
   private UserRepository userRepository;
-  private PasswordEncoder passwordEncoder;
+  private PasswordHashingService passwordHashingService;
   private ModelMapper modelMapper;
   private JwtService jwtService;
+  private UserSecurityCache userSecurityCache;
+  private LoginAttemptGuard loginAttemptGuard;
   private UserService userService;
 
   @BeforeEach
   void setUp() {
     userRepository = Mockito.mock(UserRepository.class);
-    passwordEncoder = Mockito.mock(PasswordEncoder.class);
+    passwordHashingService = Mockito.mock(PasswordHashingService.class);
     modelMapper = Mockito.mock(ModelMapper.class);
     jwtService = Mockito.mock(JwtService.class);
-    userService = new UserService(userRepository, passwordEncoder, modelMapper, jwtService);
+    userSecurityCache = Mockito.mock(UserSecurityCache.class);
+    loginAttemptGuard = Mockito.mock(LoginAttemptGuard.class);
+    userService = new UserService(userRepository, passwordHashingService, modelMapper,
+        jwtService, userSecurityCache, loginAttemptGuard);
   }
 
   @Test
@@ -51,11 +63,11 @@ class UserServiceTest {
     User user = new User();
     user.setId(1L);
     when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-    when(modelMapper.map(user, UserResponseDTO.class)).thenReturn(new UserResponseDTO());
 
     UserResponseDTO result = userService.getUserById(1L);
 
     assertNotNull(result);
+    assertEquals(1L, result.getId());
   }
 
   @Test
@@ -72,10 +84,9 @@ class UserServiceTest {
     userRequestDTO.setPassword("testPassword");
     User user = new User();
     when(userRepository.findByLogin("testLogin")).thenReturn(Optional.empty());
-    when(passwordEncoder.encode("testPassword")).thenReturn("encodedPassword");
+    when(passwordHashingService.encode("testPassword")).thenReturn("encodedPassword");
     when(modelMapper.map(userRequestDTO, User.class)).thenReturn(user);
     when(userRepository.save(user)).thenReturn(user);
-    when(modelMapper.map(user, UserResponseDTO.class)).thenReturn(new UserResponseDTO());
 
     UserResponseDTO result = userService.createUser(userRequestDTO);
 
@@ -97,6 +108,7 @@ class UserServiceTest {
     userService.deleteUser(1L);
 
     verify(userRepository).deleteById(1L);
+    verify(userSecurityCache).invalidate(1L);
   }
 
   @Test
@@ -107,7 +119,6 @@ class UserServiceTest {
     when(userRepository.findById(1L)).thenReturn(Optional.of(user));
     when(userRepository.findByLogin("newLogin")).thenReturn(Optional.empty());
     when(userRepository.save(user)).thenReturn(user);
-    when(modelMapper.map(user, UserResponseDTO.class)).thenReturn(new UserResponseDTO());
 
     UserResponseDTO result = userService.updateUser(1L, userRequestDTO);
 
@@ -126,7 +137,6 @@ class UserServiceTest {
   void getAllUsers_returnsListOfUserResponseDTOs() {
     User user = new User();
     when(userRepository.findAll()).thenReturn(Collections.singletonList(user));
-    when(modelMapper.map(user, UserResponseDTO.class)).thenReturn(new UserResponseDTO());
 
     List<UserResponseDTO> result = userService.getAllUsers();
 
@@ -138,7 +148,7 @@ class UserServiceTest {
     User user = new User();
     user.setEncryptedPassword("encodedPassword");
     when(userRepository.findByLogin("testLogin")).thenReturn(Optional.of(user));
-    when(passwordEncoder.matches("testPassword", "encodedPassword")).thenReturn(true);
+    when(passwordHashingService.matches("testPassword", "encodedPassword")).thenReturn(true);
     when(jwtService.issueAuthToken(user)).thenReturn("token");
 
     String result = userService.issueAuthToken("testLogin", "testPassword");
@@ -156,10 +166,12 @@ class UserServiceTest {
 
   @Test
   void exchangeTokenToUserInfo_returnsUserDataToken_whenTokenIsValid() {
-    User user = new User();
-    when(jwtService.getUserIdFromToken("token")).thenReturn(1L);
-    when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-    when(jwtService.verifyAuthToken("token", user)).thenReturn(true);
+    UserSecurityDTO user = new UserSecurityDTO(1L, "login", "name", UserRole.VIEWER, "salt");
+    DecodedJWT decoded = Mockito.mock(DecodedJWT.class);
+    when(jwtService.decodeAuthToken("token")).thenReturn(Optional.of(decoded));
+    when(jwtService.getUserId(decoded)).thenReturn(1L);
+    when(userSecurityCache.get(1L)).thenReturn(Optional.of(user));
+    when(jwtService.verifyAuthToken(decoded, user)).thenReturn(true);
     when(jwtService.issueUserDataToken(user)).thenReturn("userDataToken");
 
     Optional<String> result = userService.exchangeTokenToUserInfo("token");
@@ -170,19 +182,54 @@ class UserServiceTest {
 
   @Test
   void exchangeTokenToUserInfo_returnsEmptyOptional_whenTokenIsInvalid() {
-    when(jwtService.getUserIdFromToken("token")).thenReturn(null);
+    when(jwtService.decodeAuthToken("token")).thenReturn(Optional.empty());
 
     Optional<String> result = userService.exchangeTokenToUserInfo("token");
 
     assertTrue(result.isEmpty());
   }
 
+  @Test
+  void issueAuthToken_rehashesOutdatedPasswordWithoutChangingSalt() {
+    User user = new User();
+    user.setId(1L);
+    user.setEncryptedPassword("outdatedHash");
+    user.setTokenSalt("salt");
+    when(userRepository.findByLogin("testLogin")).thenReturn(Optional.of(user));
+    when(passwordHashingService.matches("testPassword", "outdatedHash")).thenReturn(true);
+    when(passwordHashingService.upgradeEncoding("outdatedHash")).thenReturn(true);
+    when(passwordHashingService.encode("testPassword")).thenReturn("upgradedHash");
+    when(jwtService.issueAuthToken(user)).thenReturn("authToken");
+
+    assertEquals("authToken", userService.issueAuthToken("testLogin", "testPassword"));
+    assertEquals("salt", user.getTokenSalt());
+    verify(userRepository).replaceEncryptedPassword(1L, "outdatedHash", "upgradedHash");
+    verify(userRepository, never()).save(any(User.class));
+  }
+
+  @Test
+  void issueAuthToken_issuesTokenWhenRehashLosesToConcurrentPasswordChange() {
+    User user = new User();
+    user.setId(1L);
+    user.setEncryptedPassword("outdatedHash");
+    when(userRepository.findByLogin("testLogin")).thenReturn(Optional.of(user));
+    when(passwordHashingService.matches("testPassword", "outdatedHash")).thenReturn(true);
+    when(passwordHashingService.upgradeEncoding("outdatedHash")).thenReturn(true);
+    when(passwordHashingService.encode("testPassword")).thenReturn("upgradedHash");
+    when(userRepository.replaceEncryptedPassword(1L, "outdatedHash", "upgradedHash"))
+        .thenReturn(0);
+    when(jwtService.issueAuthToken(user)).thenReturn("authToken");
+
+    assertEquals("authToken", userService.issueAuthToken("testLogin", "testPassword"));
+    verify(userRepository, never()).save(any(User.class));
+  }
+
   @Test
   void issueAuthToken_throwsWhenPasswordIsIncorrect() {
     User user = new User();
     user.setEncryptedPassword("encodedPassword");
     when(userRepository.findByLogin("testLogin")).thenReturn(Optional.of(user));
-    when(passwordEncoder.matches("testPassword", "encodedPassword")).thenReturn(false);
+    when(passwordHashingService.matches("testPassword", "encodedPassword")).thenReturn(false);
 
     Assertions.assertThrows(BadLoginCredentials.class,
         () -> userService.issueAuthToken("testLogin", "testPassword"));
@@ -190,10 +237,12 @@ class UserServiceTest {
 
   @Test
   void exchangeTokenToUserInfo_returnsEmptyWhenTokenIsBad() {
-    User user = new User();
-    when(jwtService.getUserIdFromToken("token")).thenReturn(1L);
-    when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-    when(jwtService.verifyAuthToken("token", user)).thenReturn(false);
+    UserSecurityDTO user = new UserSecurityDTO(1L, "login", "name", UserRole.VIEWER, "salt");
+    DecodedJWT decoded = Mockito.mock(DecodedJWT.class);
+    when(jwtService.decodeAuthToken("token")).thenReturn(Optional.of(decoded));
+    when(jwtService.getUserId(decoded)).thenReturn(1L);
+    when(userSecurityCache.get(1L)).thenReturn(Optional.of(user));
+    when(jwtService.verifyAuthToken(decoded, user)).thenReturn(false);
 
     Optional<String> result = userService.exchangeTokenToUserInfo("token");
 
@@ -221,15 +270,12 @@ class UserServiceTest {
     when(userRepository.findByLogin("newLogin")).thenReturn(Optional.empty());
     when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-    when(passwordEncoder.encode("newPassword")).thenReturn("encodedNewPassword");
-
-    // Mock ModelMapper to return a simple DTO
-    UserResponseDTO expectedResponse = new UserResponseDTO();
-    when(modelMapper.map(any(User.class), any())).thenReturn(expectedResponse);
+    when(passwordHashingService.encode("newPassword")).thenReturn("encodedNewPassword");
 
     // Act
     UserResponseDTO result = userService.updateUser(userId, updateRequest);
-    assertEquals(expectedResponse, result);
+    assertEquals("newLogin", result.getLogin());
+    assertEquals(UserRole.EDITOR, result.getRole());
 
     // Assert
     verify(userRepository).findById(userId);
@@ -244,6 +290,7 @@ class UserServiceTest {
     assertEquals("newName", savedUser.getName());
     assertEquals(UserRole.EDITOR, savedUser.getRole());
     assertEquals("encodedNewPassword", savedUser.getEncryptedPassword());
+    verify(loginAttemptGuard).invalidate("oldLogin");
   }
 
   @Test
@@ -269,10 +316,8 @@ class UserServiceTest {
     User user = new User();
     user.setLogin("testLogin");
     when(userRepository.findByLogin("testLogin")).thenReturn(Optional.of(user));
-    UserResponseDTO expected = new UserResponseDTO();
-    when(modelMapper.map(user, UserResponseDTO.class)).thenReturn(expected);
     UserResponseDTO result = userService.getUserByLogin("testLogin");
-    assertEquals(expected, result);
+    assertEquals("testLogin", result.getLogin());
   }
 
   @Test
@@ -281,4 +326,44 @@ class UserServiceTest {
     assertThrows(NoSuchUserException.class, () -> userService.getUserByLogin("testLogin"));
   }
 
-}
\ No newline at end of file
+  @Test
+  void exchangeTokensToUserInfo_loadsUsersOnceAndKeepsOrder() {
+    UserSecurityDTO first = new UserSecurityDTO(1L, "first", "First", UserRole.VIEWER, "salt");
+    UserSecurityDTO second = new UserSecurityDTO(2L, "second", "Second", UserRole.EDITOR, "salt");
+    DecodedJWT firstToken = Mockito.mock(DecodedJWT.class);
+    DecodedJWT secondToken = Mockito.mock(DecodedJWT.class);
+    when(jwtService.decodeAuthToken("first")).thenReturn(Optional.of(firstToken));
+    when(jwtService.decodeAuthToken("second")).thenReturn(Optional.of(secondToken));
+    when(jwtService.decodeAuthToken("garbage")).thenReturn(Optional.empty());
+    when(jwtService.getUserId(firstToken)).thenReturn(1L);
+    when(jwtService.getUserId(secondToken)).thenReturn(2L);
+    when(userSecurityCache.getAll(Set.of(1L, 2L))).thenReturn(Map.of(1L, first, 2L, second));
+    when(jwtService.verifyAuthToken(firstToken, first)).thenReturn(true);
+    when(jwtService.verifyAuthToken(secondToken, second)).thenReturn(false);
+    when(jwtService.issueUserDataToken(first)).thenReturn("firstDataToken");
+
+    List<String> result = userService.exchangeTokensToUserInfo(
+        Arrays.asList("first", "garbage", "second", null));
+
+    assertEquals(4, result.size());
+    assertEquals("firstDataToken", result.get(0));
+    assertNull(result.get(1));
+    assertNull(result.get(2));
+    assertNull(result.get(3));
+    verify(userSecurityCache, times(1)).getAll(Set.of(1L, 2L));
+  }
+
+  @Test
+  void updateUser_invalidatesSecurityCache() {
+    User user = new User();
+    user.setId(1L);
+    UserRequestDTO userRequestDTO = new UserRequestDTO();
+    userRequestDTO.setRole(UserRole.EDITOR);
+    when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    when(userRepository.save(user)).thenReturn(user);
+
+    userService.updateUser(1L, userRequestDTO);
+
+    verify(userSecurityCache).invalidate(1L);
+  }
+}